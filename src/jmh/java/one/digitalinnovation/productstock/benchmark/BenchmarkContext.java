@@ -0,0 +1,63 @@
+package one.digitalinnovation.productstock.benchmark;
+
+import one.digitalinnovation.productstock.ProductApplication;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Boots the application against a dedicated in-memory database, so every benchmark trial starts from
+ * an empty catalog. Only the load test starts the web server.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return application()
+                .web(WebApplicationType.NONE)
+                .run(arguments(properties));
+    }
+
+    /**
+     * Starts the web server of the stack selected by the given properties, servlet by default.
+     */
+    static ConfigurableApplicationContext startServer(String... properties) {
+        return application().run(arguments(properties));
+    }
+
+    private static SpringApplicationBuilder application() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(ProductApplication.class)
+                .bannerMode(Banner.Mode.OFF);
+    }
+
+    /**
+     * Passes the properties as command line arguments, so they take precedence over
+     * application.properties.
+     */
+    private static String[] arguments(String... properties) {
+        String database = "benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+        return Stream.concat(
+                        Stream.of("spring.datasource.url=jdbc:h2:mem:" + database,
+                                "spring.r2dbc.url=r2dbc:h2:mem:///" + database,
+                                "logging.level.root=WARN"),
+                        Arrays.stream(properties))
+                .map(property -> "--" + property)
+                .toArray(String[]::new);
+    }
+
+    static void seedProducts(ConfigurableApplicationContext context, int count, int quantity, int max) {
+        context.getBean(JdbcTemplate.class).update(
+                "INSERT INTO product (serial, name, brand, quantity, max, purchase_price, type) " +
+                        "SELECT x, CONCAT('Product ', x), CONCAT('Brand ', MOD(x, 100)), ?, ?, 50.0, 'RACAO' " +
+                        "FROM SYSTEM_RANGE(1, ?)", quantity, max, count);
+    }
+}
@@ -0,0 +1,87 @@
+package one.digitalinnovation.productstock.benchmark;
+
+import one.digitalinnovation.productstock.entity.Product;
+import one.digitalinnovation.productstock.enums.ProductType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of flushing a persistence context holding the whole catalog. Every invocation loads the
+ * products in a new transaction outside of the measurement and rolls it back afterwards, so only the
+ * changes and the flush are timed. Compare a default build, whose entities are bytecode enhanced, with
+ * one built with {@code -Dhibernate.enhance.phase=none}, which falls back to snapshot dirty checking.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ProductFlushBenchmark {
+
+    @Param({"1000", "10000"})
+    public int products;
+
+    private ConfigurableApplicationContext context;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private EntityManager entityManager;
+
+    private List<Product> managedProducts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seedProducts(context, products, 10, 50);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void loadProducts() {
+        entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        managedProducts = entityManager.createQuery("SELECT p FROM Product p", Product.class).getResultList();
+    }
+
+    @TearDown(Level.Invocation)
+    public void rollback() {
+        entityManager.getTransaction().rollback();
+        entityManager.close();
+    }
+
+    @Benchmark
+    public void flushWithOnePercentChanged() {
+        for (int index = 0; index < managedProducts.size(); index += 100) {
+            Product product = managedProducts.get(index);
+            product.setQuantity(product.getQuantity() + 1);
+        }
+        entityManager.flush();
+    }
+
+    @Benchmark
+    public void flushWithEveryProductChanged() {
+        for (Product product : managedProducts) {
+            product.setQuantity(product.getQuantity() + 1);
+        }
+        entityManager.flush();
+    }
+
+    @Benchmark
+    public void persistAndFlush() {
+        for (long serial = products + 1; serial <= 2L * products; serial++) {
+            entityManager.persist(new Product(serial, "New product " + serial, "Brand", 10, 50, 50.0, ProductType.RACAO, null));
+        }
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,125 @@
+package one.digitalinnovation.productstock.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the throughput of the execution modes: servlet on platform threads, servlet on virtual
+ * threads and the reactive stack. For every mode and connection count the application is started on
+ * a random port, and each connection keeps requesting product pages for the configured duration.
+ * <p>
+ * Client and server share the process, so it needs about two file descriptors per connection.
+ * Configured through {@code load.modes}, {@code load.connections}, {@code load.seconds} and
+ * {@code load.warmup-seconds}.
+ */
+public final class ProductLoadTest {
+    private static final int PRODUCTS = 10_000;
+    private static final int PAGE_SIZE = 20;
+
+    private ProductLoadTest() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String[] modes = System.getProperty("load.modes", "platform,virtual,reactive").split(",");
+        int[] connectionCounts = Arrays.stream(System.getProperty("load.connections", "1000,10000").split(","))
+                .mapToInt(count -> Integer.parseInt(count.trim()))
+                .toArray();
+        Duration duration = Duration.ofSeconds(Long.getLong("load.seconds", 20));
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 5));
+
+        System.out.printf("%-9s %11s %10s %12s %9s %9s %9s %7s%n",
+                "mode", "connections", "requests", "requests/s", "p50 ms", "p95 ms", "p99 ms", "errors");
+        for (String mode : modes) {
+            for (int connections : connectionCounts) {
+                run(mode.trim(), connections, warmup, duration);
+            }
+        }
+    }
+
+    private static void run(String mode, int connections, Duration warmup, Duration duration) throws InterruptedException {
+        try (ConfigurableApplicationContext context = BenchmarkContext.startServer(
+                "server.port=0",
+                "server.tomcat.max-connections=" + (connections + 100),
+                "server.tomcat.accept-count=" + connections,
+                "spring.threads.virtual.enabled=" + "virtual".equals(mode),
+                "spring.profiles.active=" + ("reactive".equals(mode) ? "reactive" : "default"))) {
+            BenchmarkContext.seedProducts(context, PRODUCTS, 10, 50);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .executor(clientExecutor)
+                    .build();
+            Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+            LongAdder errors = new LongAdder();
+            long measureFrom = System.nanoTime() + warmup.toNanos();
+            long stopAt = measureFrom + duration.toNanos();
+
+            try (ExecutorService connectionExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int connection = 0; connection < connections; connection++) {
+                    connectionExecutor.submit(() -> request(client, port, measureFrom, stopAt, latencies, errors));
+                }
+            }
+            clientExecutor.shutdownNow();
+
+            System.out.printf("%-9s %11d %10d %12.0f %9.1f %9.1f %9.1f %7d%n",
+                    mode,
+                    connections,
+                    latencies.getTotalCount(),
+                    latencies.getTotalCount() / (double) duration.toSeconds(),
+                    latencies.getValueAtPercentile(50) / 1e6,
+                    latencies.getValueAtPercentile(95) / 1e6,
+                    latencies.getValueAtPercentile(99) / 1e6,
+                    errors.sum());
+        }
+    }
+
+    private static void request(HttpClient client, int port, long measureFrom, long stopAt, Histogram latencies, LongAdder errors) {
+        while (true) {
+            long start = System.nanoTime();
+            if (start >= stopAt) {
+                return;
+            }
+            long cursor = ThreadLocalRandom.current().nextLong(PRODUCTS - PAGE_SIZE);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(String.format(
+                            "http://localhost:%d/api/v1/products?cursor=%d&limit=%d", port, cursor, PAGE_SIZE)))
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (start < measureFrom) {
+                    continue;
+                }
+                if (response.statusCode() == 200) {
+                    latencies.recordValue(Math.min(System.nanoTime() - start, latencies.getHighestTrackableValue()));
+                } else {
+                    errors.increment();
+                }
+            } catch (Exception e) {
+                if (start >= measureFrom) {
+                    errors.increment();
+                }
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
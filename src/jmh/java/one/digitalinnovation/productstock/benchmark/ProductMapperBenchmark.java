@@ -0,0 +1,40 @@
+package one.digitalinnovation.productstock.benchmark;
+
+import one.digitalinnovation.productstock.builder.ProductDTOBuilder;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.entity.Product;
+import one.digitalinnovation.productstock.mapper.ProductMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductMapperBenchmark {
+
+    private final ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    private ProductDTO productDTO;
+
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        product = productMapper.toModel(productDTO);
+    }
+
+    @Benchmark
+    public ProductDTO toDTO() {
+        return productMapper.toDTO(product);
+    }
+
+    @Benchmark
+    public Product toModel() {
+        return productMapper.toModel(productDTO);
+    }
+}
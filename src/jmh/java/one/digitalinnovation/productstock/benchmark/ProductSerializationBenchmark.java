@@ -0,0 +1,74 @@
+package one.digitalinnovation.productstock.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.productstock.builder.ProductDTOBuilder;
+import one.digitalinnovation.productstock.config.WireFormatConfig;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.enums.ProductType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Encoding and decoding cost of a product list in each wire format the API negotiates. The encoded
+ * size of the list is printed on setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductSerializationBenchmark {
+
+    private static final TypeReference<List<ProductDTO>> PRODUCT_LIST = new TypeReference<List<ProductDTO>>() {
+    };
+
+    @Param({"100", "10000"})
+    public int products;
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+
+    private List<ProductDTO> productDTOs;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        productDTOs = LongStream.rangeClosed(1, products)
+                .mapToObj(serial -> ProductDTOBuilder.builder()
+                        .serial(serial)
+                        .name("Product " + serial)
+                        .type(ProductType.values()[(int) (serial % ProductType.values().length)])
+                        .build()
+                        .toProductDTO())
+                .collect(Collectors.toList());
+        objectMapper = switch (format) {
+            case "smile" -> WireFormatConfig.smileMapper(new Jackson2ObjectMapperBuilder());
+            case "cbor" -> WireFormatConfig.cborMapper(new Jackson2ObjectMapperBuilder());
+            default -> new Jackson2ObjectMapperBuilder().build();
+        };
+        encoded = objectMapper.writeValueAsBytes(productDTOs);
+        System.out.printf("%n%s encoding of %d products: %d bytes%n", format, products, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(productDTOs);
+    }
+
+    @Benchmark
+    public List<ProductDTO> deserialize() throws IOException {
+        return objectMapper.readValue(encoded, PRODUCT_LIST);
+    }
+}
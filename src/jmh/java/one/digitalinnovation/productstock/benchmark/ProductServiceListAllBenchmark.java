@@ -0,0 +1,48 @@
+package one.digitalinnovation.productstock.benchmark;
+
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ProductServiceListAllBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int products;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seedProducts(context, products, 10, 50);
+        productService = context.getBean(ProductService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductDTO> listAll() {
+        return productService.listAll();
+    }
+
+    @Benchmark
+    public void exportAll(Blackhole blackhole) {
+        productService.exportAll(blackhole::consume);
+    }
+}
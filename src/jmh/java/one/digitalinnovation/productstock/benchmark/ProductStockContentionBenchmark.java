@@ -0,0 +1,65 @@
+package one.digitalinnovation.productstock.benchmark;
+
+import one.digitalinnovation.productstock.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Increments and decrements the stock of a single hot serial from several threads at once. Calls
+ * rejected by the stock bounds are counted as operations too, since they cost a round trip as well.
+ * With {@code combining} the movements go through the write-combining path instead of one
+ * conditional UPDATE each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ProductStockContentionBenchmark {
+
+    private static final long HOT_SERIAL = 1L;
+
+    @Param({"false", "true"})
+    private boolean combining;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("product.stock.combining.enabled=" + combining);
+        BenchmarkContext.seedProducts(context, 1, 250, 500);
+        productService = context.getBean(ProductService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("hotSerial")
+    @GroupThreads(4)
+    public Object increment() {
+        try {
+            return productService.increment(HOT_SERIAL, 1);
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    @Group("hotSerial")
+    @GroupThreads(4)
+    public Object decrement() {
+        try {
+            return productService.decrement(HOT_SERIAL, 1);
+        } catch (Exception e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package one.digitalinnovation.productstock.cache;
+
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the product caches in sync with writes. A write bumps the {@link ProductVersions} of the
+ * product and then evicts its entries, only after the surrounding transaction commits, so a concurrent
+ * read can not cache a value that is about to be rolled back.
+ * <p>
+ * Entries are filled by reads only, and a read that started before a write committed may return the
+ * old product after the eviction. Such a read must not cache it: {@link #fill} drops the products
+ * whose version moved past the catalog version read before the query.
+ */
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ProductCache {
+    public static final String BY_NAME = "productsByName";
+    public static final String BY_SERIAL = "productsBySerial";
+
+    private final CacheManager cacheManager;
+    private final ProductVersions productVersions;
+
+    /**
+     * The cached product for the given key of the given cache or, on a miss, the one found by the
+     * query, which is then cached as by {@link #fill}.
+     */
+    public Optional<ProductDTO> get(String cacheName, Object key, Supplier<Optional<ProductDTO>> query) {
+        ProductDTO cached = cache(cacheName).get(key, ProductDTO.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long catalogVersion = productVersions.catalogVersion();
+        Optional<ProductDTO> found = query.get();
+        found.ifPresent(productDTO -> fill(productDTO, catalogVersion));
+        return found;
+    }
+
+    /**
+     * Caches a product read after {@code catalogVersion} was, unless it is already cached or changed
+     * since, in which case the copy being cached may be older than the committed one.
+     *
+     * @return whether the product was cached
+     */
+    public boolean fill(ProductDTO productDTO, long catalogVersion) {
+        Cache byName = cache(BY_NAME);
+        Cache bySerial = cache(BY_SERIAL);
+        byName.putIfAbsent(productDTO.getName(), productDTO);
+        bySerial.putIfAbsent(productDTO.getSerial(), productDTO);
+        if (productVersions.version(productDTO.getName()) > catalogVersion) {
+            byName.evict(productDTO.getName());
+            bySerial.evict(productDTO.getSerial());
+            return false;
+        }
+        return true;
+    }
+
+    public void evict(ProductDTO productDTO) {
+        evict(productDTO.getName(), productDTO.getSerial());
+    }
+
+    public void evict(String name, Long serial) {
+        afterCommit(() -> {
+            productVersions.changed(name, serial);
+            cache(BY_NAME).evict(name);
+            cache(BY_SERIAL).evict(serial);
+        });
+    }
+
+    /**
+     * As {@link #evict(String, Long)}, for a deleted product, whose version is no longer tracked.
+     */
+    public void remove(String name, Long serial) {
+        afterCommit(() -> {
+            productVersions.removed(name, serial);
+            cache(BY_NAME).evict(name);
+            cache(BY_SERIAL).evict(serial);
+        });
+    }
+
+    private Cache cache(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            throw new IllegalStateException(String.format("Cache %s is not configured.", cacheName));
+        }
+        return cache;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
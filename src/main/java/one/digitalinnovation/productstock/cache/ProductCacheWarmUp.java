@@ -0,0 +1,179 @@
+package one.digitalinnovation.productstock.cache;
+
+import one.digitalinnovation.productstock.config.CacheWarmUpProperties;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.repository.ProductRepository;
+import one.digitalinnovation.productstock.stock.StockEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Pre-loads the product caches after startup, so that a restarted instance does not send its first
+ * requests for hot products to the database. On shutdown the serials of the hottest cached products
+ * are written to {@code product.cache.warm-up.hot-products-file}; on the next startup they are loaded
+ * in batches, in the background, while the application already takes traffic. Without that file the
+ * first {@code product.cache.warm-up.maximum-products} products by serial are loaded instead.
+ * <p>
+ * Products are ranked as by the eviction policy of Caffeine, which only counts accesses once a cache
+ * is half full; below that, the most recently cached products come first.
+ * <p>
+ * Products are cached as by {@link ProductCache#fill}, so a write committed meanwhile is not shadowed
+ * by an older copy.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ProductCacheWarmUp {
+    private static final int BATCH_SIZE = 500;
+
+    private final CacheWarmUpProperties properties;
+    private final CacheManager cacheManager;
+    private final ProductCache productCache;
+    private final ProductRepository productRepository;
+    private final ProductVersions productVersions;
+    private final StockEngine stockEngine;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpInBackground() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Thread thread = new Thread(this::warmUpQuietly, "product-cache-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            saveHotSerials();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not save the hot products for the next cache warm-up", e);
+        }
+    }
+
+    /**
+     * @return how many products were cached
+     */
+    public int warmUp() throws IOException {
+        long started = System.nanoTime();
+        List<Long> hotSerials = loadHotSerials();
+        int cached = 0;
+        if (hotSerials.isEmpty()) {
+            cached = cache(() -> productRepository.findDTOsOrderedBySerial(PageRequest.of(0, properties.getMaximumProducts())));
+        }
+        for (int from = 0; from < hotSerials.size(); from += BATCH_SIZE) {
+            List<Long> batch = hotSerials.subList(from, Math.min(from + BATCH_SIZE, hotSerials.size()));
+            cached += cache(() -> productRepository.findDTOsBySerialIn(batch));
+        }
+        log.info("Warmed up the product caches with {} products in {} ms", cached,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return cached;
+    }
+
+    /**
+     * Writes the serials of the hottest cached products, at most {@code product.cache.warm-up.maximum-products},
+     * taking from both caches in turn.
+     */
+    public void saveHotSerials() throws IOException {
+        Iterator<Object> byName = hottest(ProductCache.BY_NAME).iterator();
+        Iterator<Object> bySerial = hottest(ProductCache.BY_SERIAL).iterator();
+        Set<Long> hotSerials = new LinkedHashSet<>();
+        while ((byName.hasNext() || bySerial.hasNext()) && hotSerials.size() < properties.getMaximumProducts()) {
+            addSerial(hotSerials, byName);
+            addSerial(hotSerials, bySerial);
+        }
+        Path hotProductsFile = properties.getHotProductsFile();
+        Path parent = hotProductsFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path written = Files.createTempFile(parent, hotProductsFile.getFileName().toString(), ".tmp");
+        Files.write(written, hotSerials.stream()
+                .limit(properties.getMaximumProducts())
+                .map(String::valueOf)
+                .collect(Collectors.toList()));
+        Files.move(written, hotProductsFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void warmUpQuietly() {
+        try {
+            warmUp();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not warm up the product caches", e);
+        }
+    }
+
+    private List<Long> loadHotSerials() throws IOException {
+        Path hotProductsFile = properties.getHotProductsFile();
+        if (!Files.exists(hotProductsFile)) {
+            return List.of();
+        }
+        try (var lines = Files.lines(hotProductsFile)) {
+            return lines.map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .map(Long::valueOf)
+                    .limit(properties.getMaximumProducts())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private int cache(Supplier<List<ProductDTO>> query) {
+        long catalogVersion = productVersions.catalogVersion();
+        int cached = 0;
+        for (ProductDTO productDTO : query.get()) {
+            if (productCache.fill(stockEngine.withCurrentQuantity(productDTO), catalogVersion)) {
+                cached++;
+            }
+        }
+        return cached;
+    }
+
+    private Collection<Object> hottest(String cacheName) {
+        if (!(cache(cacheName) instanceof CaffeineCache caffeineCache)) {
+            return List.of();
+        }
+        return caffeineCache.getNativeCache().policy().eviction()
+                .map(eviction -> eviction.hottest(properties.getMaximumProducts()))
+                .map(Map::values)
+                .orElseGet(() -> caffeineCache.getNativeCache().asMap().values());
+    }
+
+    private static void addSerial(Set<Long> hotSerials, Iterator<Object> cached) {
+        if (cached.hasNext() && cached.next() instanceof ProductDTO productDTO) {
+            hotSerials.add(productDTO.getSerial());
+        }
+    }
+
+    private Cache cache(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            throw new IllegalStateException(String.format("Cache %s is not configured.", cacheName));
+        }
+        return cache;
+    }
+}
@@ -0,0 +1,89 @@
+package one.digitalinnovation.productstock.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions of the product representations, used as entity tags of conditional requests. Every change
+ * of a product gives it the next value of a catalog-wide counter, which in turn versions the listings.
+ * Changes must be reported after they commit, so a tag is never newer than the data it is served with.
+ * <p>
+ * Versions live in memory and restart from zero, so the tags carry a random epoch drawn on startup.
+ * As the stock engine, they expect every write to go through a single application instance.
+ * <p>
+ * The tags are weak: they version the product, not the bytes of a response, which may be gzipped or
+ * encoded in any of the negotiated formats. Tomcat also refuses to compress responses with strong tags.
+ * <p>
+ * Only the products changed since startup are tracked, by name and by serial, and the ones deleted or
+ * in excess of {@link #MAXIMUM_TRACKED_PRODUCTS} are forgotten. An untracked product takes the version
+ * of the last forgotten change, which is at least its own, so its tag never goes back to one a client
+ * may hold.
+ */
+@Component
+public class ProductVersions {
+    static final int MAXIMUM_TRACKED_PRODUCTS = 10_000;
+
+    private final String epoch = Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), Character.MAX_RADIX);
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final AtomicLong untrackedVersion = new AtomicLong();
+    private final Map<String, Long> versionsByName = new ConcurrentHashMap<>();
+    private final Map<Long, Long> versionsBySerial = new ConcurrentHashMap<>();
+
+    public void changed(String name, Long serial) {
+        long version = catalogVersion.incrementAndGet();
+        versionsByName.merge(name, version, Math::max);
+        versionsBySerial.merge(serial, version, Math::max);
+        if (versionsByName.size() > MAXIMUM_TRACKED_PRODUCTS || versionsBySerial.size() > MAXIMUM_TRACKED_PRODUCTS) {
+            forgetAll();
+        }
+    }
+
+    public void removed(String name, Long serial) {
+        long version = catalogVersion.incrementAndGet();
+        untrackedVersion.accumulateAndGet(version, Math::max);
+        versionsByName.computeIfPresent(name, (removedName, tracked) -> tracked > version ? tracked : null);
+        versionsBySerial.computeIfPresent(serial, (removedSerial, tracked) -> tracked > version ? tracked : null);
+    }
+
+    public String etag(String name) {
+        return weak(version(name));
+    }
+
+    public String catalogETag() {
+        return weak(catalogVersion());
+    }
+
+    public long version(String name) {
+        return tracked(versionsByName.get(name));
+    }
+
+    public long version(Long serial) {
+        return tracked(versionsBySerial.get(serial));
+    }
+
+    /**
+     * The version of the last change of any product: a product changed after this was read has a
+     * greater {@link #version(String)}.
+     */
+    public long catalogVersion() {
+        return catalogVersion.get();
+    }
+
+    private long tracked(Long version) {
+        return version != null ? version : untrackedVersion.get();
+    }
+
+    private void forgetAll() {
+        long version = untrackedVersion.accumulateAndGet(catalogVersion.get(), Math::max);
+        versionsByName.values().removeIf(tracked -> tracked <= version);
+        versionsBySerial.values().removeIf(tracked -> tracked <= version);
+    }
+
+    private String weak(long version) {
+        return "W/\"" + epoch + "-" + version + "\"";
+    }
+}
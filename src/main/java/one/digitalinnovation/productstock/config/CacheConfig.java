@@ -0,0 +1,14 @@
+package one.digitalinnovation.productstock.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the Caffeine cache manager. Product lookups go through
+ * {@link one.digitalinnovation.productstock.cache.ProductCache} rather than cache annotations, so that
+ * a lookup racing a write does not cache the product it read before the write committed.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
@@ -0,0 +1,18 @@
+package one.digitalinnovation.productstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+@Data
+@ConfigurationProperties(prefix = "product.cache.warm-up")
+public class CacheWarmUpProperties {
+
+    private boolean enabled = false;
+
+    private int maximumProducts = 1000;
+
+    private Path hotProductsFile = Paths.get("data", "hot-products");
+}
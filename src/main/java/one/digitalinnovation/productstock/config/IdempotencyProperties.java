@@ -0,0 +1,25 @@
+package one.digitalinnovation.productstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.idempotency")
+public class IdempotencyProperties {
+
+    private Store store = Store.MEMORY;
+
+    private Duration ttl = Duration.ofHours(24);
+
+    private long maximumKeys = 100_000;
+
+    private Duration inFlightTimeout = Duration.ofSeconds(10);
+
+    private Duration purgeInterval = Duration.ofMinutes(10);
+
+    public enum Store {
+        MEMORY, DATABASE
+    }
+}
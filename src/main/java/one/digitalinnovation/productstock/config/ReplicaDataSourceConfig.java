@@ -0,0 +1,65 @@
+package one.digitalinnovation.productstock.config;
+
+import one.digitalinnovation.productstock.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single data source with the primary plus the read replicas of
+ * {@code product.replica.instances}, routed by {@link ReplicaRoutingDataSource}. Flyway, JPA and
+ * {@code JdbcTemplate} all get the routing proxy, which hands them the primary outside the
+ * read-only transactions of replica reads.
+ * <p>
+ * Replicas are expected to be fed by the replication of the primary. With
+ * {@code product.replica.migrate}, meant for local replicas such as a second H2 database, the
+ * migrations are also run on every replica on startup.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "product.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, ReplicaProperties properties) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (ReplicaProperties.Instance instance : properties.getInstances()) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(instance.getUrl())
+                    .username(instance.getUsername())
+                    .password(instance.getPassword())
+                    .build();
+            replica.setPoolName(primaryDataSource.getPoolName() + "-replica-" + replicas.size());
+            replica.setMaximumPoolSize(instance.getMaximumPoolSize());
+            if (properties.isMigrate()) {
+                Flyway.configure().dataSource(replica).load().migrate();
+            }
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    @Bean
+    @Primary
+    public LazyConnectionDataSourceProxy dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,35 @@
+package one.digitalinnovation.productstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "product.replica")
+public class ReplicaProperties {
+
+    private boolean enabled = false;
+
+    private List<Instance> instances = new ArrayList<>();
+
+    private boolean migrate = false;
+
+    private boolean readYourWrites = false;
+
+    private Duration readYourWritesWindow = Duration.ofSeconds(2);
+
+    @Data
+    public static class Instance {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+    }
+}
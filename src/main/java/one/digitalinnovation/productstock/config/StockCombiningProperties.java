@@ -0,0 +1,17 @@
+package one.digitalinnovation.productstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.stock.combining")
+public class StockCombiningProperties {
+
+    private boolean enabled = false;
+
+    private Duration window = Duration.ofMillis(2);
+
+    private int maxBatchSize = 500;
+}
@@ -0,0 +1,29 @@
+package one.digitalinnovation.productstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.stock.engine")
+public class StockEngineProperties {
+
+    private boolean enabled = false;
+
+    private int stripes = 16;
+
+    private Duration flushInterval = Duration.ofMillis(100);
+
+    private Path journalDirectory = Paths.get("data", "stock-journal");
+
+    /**
+     * Whether every journal record is forced to disk before the adjustment is acknowledged. Without it
+     * the records are handed to the operating system, which keeps them through a crash of the
+     * application, but a power loss or a crash of the operating system loses the adjustments
+     * acknowledged since the last write-back of the page cache, about 30 seconds by default on Linux.
+     */
+    private boolean fsync = false;
+}
@@ -0,0 +1,23 @@
+package one.digitalinnovation.productstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.stock.events")
+public class StockEventProperties {
+
+    private double lowStockRatio = 0.2;
+
+    private Duration dispatchInterval = Duration.ofMillis(500);
+
+    private int batchSize = 500;
+
+    private Duration retention = Duration.ofHours(1);
+
+    private Duration streamTimeout = Duration.ofMinutes(30);
+
+    private int streamBacklog = 64;
+}
@@ -0,0 +1,17 @@
+package one.digitalinnovation.productstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.stock.retry")
+public class StockRetryProperties {
+
+    private int maxAttempts = 5;
+
+    private Duration initialBackoff = Duration.ofMillis(10);
+
+    private Duration maxBackoff = Duration.ofMillis(200);
+}
@@ -1,26 +1,82 @@
 package one.digitalinnovation.productstock.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import one.digitalinnovation.productstock.datasource.ReadYourWrites;
 import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.dto.ProductFilterDTO;
+import one.digitalinnovation.productstock.dto.ProductImportResultDTO;
+import one.digitalinnovation.productstock.dto.ProductPageDTO;
+import one.digitalinnovation.productstock.dto.ProductSearchHitDTO;
 import one.digitalinnovation.productstock.dto.QuantityDTO;
+import one.digitalinnovation.productstock.dto.StockAdjustmentDTO;
+import one.digitalinnovation.productstock.dto.StockAdjustmentResultDTO;
+import one.digitalinnovation.productstock.event.SseStockEventPublisher;
+import one.digitalinnovation.productstock.exception.IdempotencyKeyException;
+import one.digitalinnovation.productstock.exception.IdempotencyKeyInvalidException;
 import one.digitalinnovation.productstock.exception.ProductAlreadyRegisteredException;
+import one.digitalinnovation.productstock.exception.ProductImportException;
 import one.digitalinnovation.productstock.exception.ProductNotFoundException;
+import one.digitalinnovation.productstock.exception.ProductStockConflictException;
 import one.digitalinnovation.productstock.exception.ProductStockExceededException;
 import one.digitalinnovation.productstock.exception.ProductStockException;
+import one.digitalinnovation.productstock.idempotency.IdempotentRequests;
+import one.digitalinnovation.productstock.search.ProductSearchIndex;
+import one.digitalinnovation.productstock.service.ProductImportService;
 import one.digitalinnovation.productstock.service.ProductService;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.validation.Valid;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
 import java.util.List;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/v1/products")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class ProductController implements ProductControllerDocs{
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+    public static final MediaType APPLICATION_CBOR_SEQ = MediaType.parseMediaType(APPLICATION_CBOR_SEQ_VALUE);
+    public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final int IDEMPOTENCY_KEY_MAX_LENGTH = 255;
+
+    private static final Pattern IDEMPOTENCY_KEY = Pattern.compile("[\\x21-\\x7E]{1," + IDEMPOTENCY_KEY_MAX_LENGTH + "}");
+
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ObjectMapper objectMapper;
+    private final SseStockEventPublisher sseStockEventPublisher;
+    private final MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter;
+    private final MappingJackson2CborHttpMessageConverter cborHttpMessageConverter;
+    private final IdempotentRequests idempotentRequests;
+    private final ReadYourWrites readYourWrites;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -28,14 +84,70 @@ public class ProductController implements ProductControllerDocs{
         return productService.createProduct(productDTO);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ProductImportResultDTO importProducts(InputStream inputStream) throws IOException, ProductImportException {
+        return productImportService.importJson(inputStream);
+    }
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    public ProductImportResultDTO importProductsCsv(InputStream inputStream) throws IOException, ProductImportException {
+        return productImportService.importCsv(inputStream);
+    }
+
+    @GetMapping("/search")
+    public List<ProductSearchHitDTO> searchProducts(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        return productService.suggest(q, limit == null ? ProductSearchIndex.DEFAULT_LIMIT : limit);
+    }
+
     @GetMapping("/{name}")
-    public ProductDTO findByName(@PathVariable String name) throws ProductNotFoundException {
+    public ProductDTO findByName(@PathVariable String name, WebRequest request) throws ProductNotFoundException {
+        if (request.checkNotModified(productService.etag(name))) {
+            return null;
+        }
         return productService.findByName(name);
     }
 
     @GetMapping
-    public List<ProductDTO> listProducts() {
-        return productService.listAll();
+    public ResponseEntity<List<ProductDTO>> listProducts(@RequestParam(required = false) Long cursor,
+                                                         @RequestParam(required = false) Integer limit,
+                                                         @Valid ProductFilterDTO filter,
+                                                         WebRequest request) {
+        if (request.checkNotModified(productService.catalogETag())) {
+            return null;
+        }
+        if (cursor == null && limit == null && filter.isEmpty()) {
+            return ResponseEntity.ok(productService.listAll());
+        }
+        int pageSize = limit == null ? ProductService.DEFAULT_PAGE_SIZE : limit;
+        ProductPageDTO page = filter.isEmpty()
+                ? productService.listPage(cursor, pageSize)
+                : productService.search(filter, cursor, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        return response.body(page.getContent());
+    }
+
+    @GetMapping(value = "/export", produces = {APPLICATION_NDJSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_SEQ_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType format = exportFormat(accept);
+        StreamingResponseBody body;
+        if (APPLICATION_SMILE.equals(format)) {
+            body = exportSequence(smileHttpMessageConverter.getObjectMapper());
+        } else if (APPLICATION_CBOR_SEQ.equals(format)) {
+            body = exportSequence(cborHttpMessageConverter.getObjectMapper());
+        } else {
+            body = outputStream -> productService.exportAll(productDTO -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(productDTO));
+                    outputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return ResponseEntity.ok().contentType(format).body(body);
     }
 
     @DeleteMapping("/{serial}")
@@ -45,12 +157,81 @@ public class ProductController implements ProductControllerDocs{
     }
 
     @PatchMapping("/{serial}/increment")
-    public ProductDTO increment(@PathVariable Long serial, @RequestBody @Valid QuantityDTO quantityDTO) throws ProductNotFoundException, ProductStockExceededException {
-        return productService.increment(serial, quantityDTO.getQuantity());
+    public ProductDTO increment(@PathVariable Long serial, @RequestBody @Valid QuantityDTO quantityDTO,
+                                @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                HttpServletResponse response)
+            throws ProductNotFoundException, ProductStockExceededException, IdempotencyKeyException {
+        ProductDTO productDTO = idempotentRequests.execute(validIdempotencyKey(idempotencyKey), "increment:" + serial + ":" + quantityDTO.getQuantity(),
+                () -> productService.increment(serial, quantityDTO.getQuantity()));
+        readYourWrites.pin(response);
+        return productDTO;
     }
 
     @PatchMapping("/{serial}/decrement")
-    public ProductDTO decrement(@PathVariable Long serial, @RequestBody @Valid QuantityDTO quantityDTO) throws ProductNotFoundException, ProductStockException {
-        return productService.decrement(serial, quantityDTO.getQuantity());
+    public ProductDTO decrement(@PathVariable Long serial, @RequestBody @Valid QuantityDTO quantityDTO,
+                                @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                HttpServletResponse response)
+            throws ProductNotFoundException, ProductStockException, IdempotencyKeyException {
+        ProductDTO productDTO = idempotentRequests.execute(validIdempotencyKey(idempotencyKey), "decrement:" + serial + ":" + quantityDTO.getQuantity(),
+                () -> productService.decrement(serial, quantityDTO.getQuantity()));
+        readYourWrites.pin(response);
+        return productDTO;
+    }
+
+    @GetMapping(value = "/stock/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStockEvents(@RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId) {
+        return sseStockEventPublisher.subscribe(lastEventId);
+    }
+
+    @PostMapping("/stock/batch")
+    public List<StockAdjustmentResultDTO> adjustStock(@RequestBody List<StockAdjustmentDTO> adjustments) throws ProductStockConflictException {
+        return productService.adjustStock(adjustments);
+    }
+
+    /**
+     * Rejects the keys that do not fit the {@code idempotency_key} column or are not printable ASCII.
+     */
+    private static String validIdempotencyKey(String idempotencyKey) throws IdempotencyKeyInvalidException {
+        if (idempotencyKey != null && !IDEMPOTENCY_KEY.matcher(idempotencyKey).matches()) {
+            throw new IdempotencyKeyInvalidException(IDEMPOTENCY_KEY_MAX_LENGTH);
+        }
+        return idempotencyKey;
+    }
+
+    /**
+     * Picks the export format from the Accept header, highest quality first, falling back to NDJSON
+     * when the header is absent or accepts anything.
+     */
+    private static MediaType exportFormat(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return APPLICATION_NDJSON;
+        }
+        List<MediaType> acceptedTypes = MediaType.parseMediaTypes(accept);
+        acceptedTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType acceptedType : acceptedTypes) {
+            for (MediaType format : List.of(APPLICATION_NDJSON, APPLICATION_SMILE, APPLICATION_CBOR_SEQ)) {
+                if (acceptedType.includes(format)) {
+                    return format;
+                }
+            }
+        }
+        return APPLICATION_NDJSON;
+    }
+
+    private StreamingResponseBody exportSequence(ObjectMapper binaryMapper) {
+        return outputStream -> {
+            try (SequenceWriter writer = binaryMapper.writerFor(ProductDTO.class)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .writeValues(outputStream)) {
+                productService.exportAll(productDTO -> {
+                    try {
+                        writer.write(productDTO);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
     }
 }
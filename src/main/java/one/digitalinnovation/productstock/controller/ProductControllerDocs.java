@@ -1,42 +1,101 @@
 package one.digitalinnovation.productstock.controller;
 
 import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.dto.ProductFilterDTO;
+import one.digitalinnovation.productstock.dto.ProductImportResultDTO;
+import one.digitalinnovation.productstock.dto.ProductSearchHitDTO;
+import one.digitalinnovation.productstock.dto.StockAdjustmentDTO;
+import one.digitalinnovation.productstock.dto.StockAdjustmentResultDTO;
 import one.digitalinnovation.productstock.exception.ProductAlreadyRegisteredException;
+import one.digitalinnovation.productstock.exception.ProductImportException;
 import one.digitalinnovation.productstock.exception.ProductNotFoundException;
-import io.swagger.annotations.Api;
-import io.swagger.annotations.ApiOperation;
-import io.swagger.annotations.ApiResponse;
-import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.productstock.exception.ProductStockConflictException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
-@Api("Manages product stock")
+@Tag(name = "Manages product stock")
 public interface ProductControllerDocs {
-    @ApiOperation(value = "Product creation operation")
+    @Operation(summary = "Product creation operation")
     @ApiResponses(value = {
-            @ApiResponse(code = 201, message = "Success product creation"),
-            @ApiResponse(code = 400, message = "Missing required fields or wrong field range value.")
+            @ApiResponse(responseCode = "201", description = "Success product creation"),
+            @ApiResponse(responseCode = "400", description = "Missing required fields or wrong field range value.")
     })
     ProductDTO createProduct(ProductDTO productDTO) throws ProductAlreadyRegisteredException;
 
-    @ApiOperation(value = "Returns product found by a given name")
+    @Operation(summary = "Imports a JSON array of products, skipping the ones already registered")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "Success product found in the system"),
-            @ApiResponse(code = 404, message = "Product with given name not found.")
+            @ApiResponse(responseCode = "200", description = "Count of imported, duplicated and invalid products"),
+            @ApiResponse(responseCode = "400", description = "Malformed payload. Products of previous chunks remain imported.")
     })
-    ProductDTO findByName(@PathVariable String name) throws ProductNotFoundException;
+    ProductImportResultDTO importProducts(InputStream inputStream) throws IOException, ProductImportException;
 
-    @ApiOperation(value = "Returns a list of all product registered in the system")
+    @Operation(summary = "Imports a CSV with header of products, skipping the ones already registered")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "List of all product registered in the system"),
+            @ApiResponse(responseCode = "200", description = "Count of imported, duplicated and invalid products"),
+            @ApiResponse(responseCode = "400", description = "Malformed payload. Products of previous chunks remain imported.")
     })
-    List<ProductDTO> listProducts();
+    ProductImportResultDTO importProductsCsv(InputStream inputStream) throws IOException, ProductImportException;
 
-    @ApiOperation(value = "Delete a product found by a given valid serial")
+    @Operation(summary = "Type-ahead search over product names and brands, tolerant to prefixes, accents and small typos")
     @ApiResponses(value = {
-            @ApiResponse(code = 204, message = "Success product deleted in the system"),
-            @ApiResponse(code = 404, message = "Product with given serial not found.")
+            @ApiResponse(responseCode = "200", description = "Best ranked products for the query, at most limit (default 10, up to 50) of them")
+    })
+    List<ProductSearchHitDTO> searchProducts(@RequestParam String q, @RequestParam Integer limit);
+
+    @Operation(summary = "Returns product found by a given name")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success product found in the system. ETag header holds its version"),
+            @ApiResponse(responseCode = "304", description = "Product did not change since the version given in If-None-Match"),
+            @ApiResponse(responseCode = "404", description = "Product with given name not found.")
+    })
+    ProductDTO findByName(@PathVariable String name, WebRequest request) throws ProductNotFoundException;
+
+    @Operation(summary = "Returns a list of all product registered in the system, or a page of it when cursor, limit or a filter " +
+            "(type, brand, minPrice, maxPrice, lowStockBelow, lowStockRatio) is given. Accepts JSON, Smile or CBOR")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "List of product registered in the system. X-Next-Cursor header holds the cursor of the next page " +
+                    "and ETag the version of the catalog"),
+            @ApiResponse(responseCode = "304", description = "No product changed since the catalog version given in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Filter value out of range.")
+    })
+    ResponseEntity<List<ProductDTO>> listProducts(@RequestParam Long cursor, @RequestParam Integer limit, ProductFilterDTO filter, WebRequest request);
+
+    @Operation(summary = "Streams all product registered in the system as newline delimited JSON, or as a sequence of Smile " +
+            "or CBOR values, with product type as its ordinal, when the Accept header asks for them")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream of all product registered in the system"),
+    })
+    ResponseEntity<StreamingResponseBody> exportProducts(String accept);
+
+    @Operation(summary = "Delete a product found by a given valid serial")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Success product deleted in the system"),
+            @ApiResponse(responseCode = "404", description = "Product with given serial not found.")
     })
     void deleteById(@PathVariable Long serial) throws ProductNotFoundException;
+
+    @Operation(summary = "Streams, as Server-Sent Events, the products whose stock becomes low, runs out or is replenished")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream of stock level events. Reconnecting with Last-Event-ID resumes after that event")
+    })
+    SseEmitter streamStockEvents(Long lastEventId);
+
+    @Operation(summary = "Applies a batch of stock adjustments in a single transaction. Accepts JSON, Smile or CBOR")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Result of each stock adjustment, in the order they were informed"),
+            @ApiResponse(responseCode = "409", description = "Stock kept changing concurrently and the batch gave up retrying")
+    })
+    List<StockAdjustmentResultDTO> adjustStock(List<StockAdjustmentDTO> adjustments) throws ProductStockConflictException;
 }
@@ -0,0 +1,79 @@
+package one.digitalinnovation.productstock.controller;
+
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.dto.QuantityDTO;
+import one.digitalinnovation.productstock.service.ProductService;
+import one.digitalinnovation.productstock.service.ReactiveProductService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import jakarta.validation.Valid;
+
+/**
+ * Product endpoints served by WebFlux when the application runs with the {@code reactive} profile.
+ * The full listing is streamed from the database, so a slow client slows down the query instead of
+ * making the server buffer the whole catalog.
+ */
+@RestController
+@RequestMapping("/api/v1/products")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ReactiveProductController {
+
+    private final ReactiveProductService productService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<ProductDTO> createProduct(@RequestBody @Valid ProductDTO productDTO) {
+        return productService.createProduct(productDTO);
+    }
+
+    @GetMapping("/{name}")
+    public Mono<ProductDTO> findByName(@PathVariable String name) {
+        return productService.findByName(name);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<ProductDTO>>> listProducts(@RequestParam(required = false) Long cursor,
+                                                               @RequestParam(required = false) Integer limit) {
+        if (cursor == null && limit == null) {
+            return Mono.just(ResponseEntity.ok(productService.listAll()));
+        }
+        return productService.listPage(cursor, limit == null ? ProductService.DEFAULT_PAGE_SIZE : limit)
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (page.getNextCursor() != null) {
+                        response.header(ProductController.NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+                    }
+                    return response.body(Flux.fromIterable(page.getContent()));
+                });
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductDTO> exportProducts() {
+        return productService.listAll();
+    }
+
+    @DeleteMapping("/{serial}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteById(@PathVariable Long serial) {
+        return productService.deleteBySerial(serial);
+    }
+
+    @PatchMapping("/{serial}/increment")
+    public Mono<ProductDTO> increment(@PathVariable Long serial, @RequestBody @Valid QuantityDTO quantityDTO) {
+        return productService.increment(serial, quantityDTO.getQuantity());
+    }
+
+    @PatchMapping("/{serial}/decrement")
+    public Mono<ProductDTO> decrement(@PathVariable Long serial, @RequestBody @Valid QuantityDTO quantityDTO) {
+        return productService.decrement(serial, quantityDTO.getQuantity());
+    }
+}
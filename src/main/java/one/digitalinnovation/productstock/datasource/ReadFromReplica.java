@@ -0,0 +1,19 @@
+package one.digitalinnovation.productstock.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method whose read-only transactions, including those of the repositories it calls, may be
+ * served by a read replica when {@code product.replica.enabled} is set. Reads that decide a write,
+ * such as the existence check before a delete, must stay on the primary and are not marked, and so
+ * must the cached lookups, whose result would be shared with every client until the next eviction.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadFromReplica {
+}
@@ -0,0 +1,68 @@
+package one.digitalinnovation.productstock.datasource;
+
+import one.digitalinnovation.productstock.config.ReplicaProperties;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Arrays;
+
+/**
+ * Pins a client to the primary for {@code product.replica.read-your-writes-window} after its own stock
+ * movement, so that its next reads do not miss the movement on a lagging replica. The pin travels as
+ * a cookie holding its expiry, so it holds whichever instance serves the next request.
+ */
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ReadYourWrites {
+    public static final String COOKIE = "product-read-primary-until";
+
+    private final ReplicaProperties properties;
+
+    public void pin(HttpServletResponse response) {
+        if (!isEnabled()) {
+            return;
+        }
+        long window = properties.getReadYourWritesWindow().toMillis();
+        Cookie cookie = new Cookie(COOKIE, String.valueOf(System.currentTimeMillis() + window));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, (window + 999) / 1000));
+        response.addCookie(cookie);
+    }
+
+    /**
+     * Whether the request being served on the current thread, if any, comes from a pinned client.
+     */
+    public boolean isPinned() {
+        return isEnabled()
+                && RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && isPinned(attributes.getRequest());
+    }
+
+    private static boolean isPinned(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return false;
+        }
+        return Arrays.stream(request.getCookies())
+                .filter(cookie -> COOKIE.equals(cookie.getName()))
+                .anyMatch(cookie -> pinnedUntil(cookie) > System.currentTimeMillis());
+    }
+
+    private static long pinnedUntil(Cookie cookie) {
+        try {
+            return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private boolean isEnabled() {
+        return properties.isEnabled() && properties.isReadYourWrites();
+    }
+}
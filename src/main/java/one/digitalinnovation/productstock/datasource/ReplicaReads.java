@@ -0,0 +1,34 @@
+package one.digitalinnovation.productstock.datasource;
+
+import lombok.AllArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets the {@link ReadFromReplica} methods read from the replicas, unless the client is pinned to
+ * the primary by {@link ReadYourWrites}.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "product.replica", name = "enabled", havingValue = "true")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ReplicaReads {
+    private final ReadYourWrites readYourWrites;
+
+    @Around("@annotation(one.digitalinnovation.productstock.datasource.ReadFromReplica)")
+    public Object readFromReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (readYourWrites.isPinned()) {
+            return joinPoint.proceed();
+        }
+        Boolean previous = ReplicaRoutingDataSource.enterReplicaRead();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaRoutingDataSource.restore(previous);
+        }
+    }
+}
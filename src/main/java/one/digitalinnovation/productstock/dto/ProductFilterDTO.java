@@ -0,0 +1,42 @@
+package one.digitalinnovation.productstock.dto;
+
+import one.digitalinnovation.productstock.enums.ProductType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterDTO {
+
+    private ProductType type;
+
+    @Size(min = 1, max = 200)
+    private String brand;
+
+    @Min(0)
+    private Double minPrice;
+
+    @Min(0)
+    private Double maxPrice;
+
+    @Min(0)
+    private Integer lowStockBelow;
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double lowStockRatio;
+
+    public boolean isEmpty() {
+        return type == null && brand == null && minPrice == null && maxPrice == null
+                && lowStockBelow == null && lowStockRatio == null;
+    }
+}
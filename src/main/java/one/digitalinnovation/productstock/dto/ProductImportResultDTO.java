@@ -0,0 +1,19 @@
+package one.digitalinnovation.productstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResultDTO {
+
+    private long imported;
+
+    private long duplicated;
+
+    private long invalid;
+}
@@ -0,0 +1,19 @@
+package one.digitalinnovation.productstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageDTO {
+
+    private List<ProductDTO> content;
+
+    private Long nextCursor;
+}
@@ -0,0 +1,24 @@
+package one.digitalinnovation.productstock.dto;
+
+import one.digitalinnovation.productstock.enums.ProductType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchHitDTO {
+
+    private Long serial;
+
+    private String name;
+
+    private String brand;
+
+    private ProductType type;
+
+    private double score;
+}
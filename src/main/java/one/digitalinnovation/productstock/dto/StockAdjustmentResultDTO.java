@@ -0,0 +1,31 @@
+package one.digitalinnovation.productstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustmentResultDTO {
+
+    private Long serial;
+
+    private int delta;
+
+    private boolean success;
+
+    private Integer quantity;
+
+    private String message;
+
+    public static StockAdjustmentResultDTO success(StockAdjustmentDTO adjustment, int quantity) {
+        return new StockAdjustmentResultDTO(adjustment.getSerial(), adjustment.getDelta(), true, quantity, null);
+    }
+
+    public static StockAdjustmentResultDTO failure(StockAdjustmentDTO adjustment, Exception exception) {
+        return new StockAdjustmentResultDTO(adjustment.getSerial(), adjustment.getDelta(), false, null, exception.getMessage());
+    }
+}
@@ -0,0 +1,42 @@
+package one.digitalinnovation.productstock.dto;
+
+import one.digitalinnovation.productstock.entity.StockEvent;
+import one.digitalinnovation.productstock.enums.StockLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockEventDTO {
+
+    private Long id;
+
+    private Long serial;
+
+    private String name;
+
+    private StockLevel level;
+
+    private StockLevel previousLevel;
+
+    private int quantity;
+
+    private int max;
+
+    private int delta;
+
+    private Instant occurredAt;
+
+    private Long dispatchSequence;
+
+    public static StockEventDTO of(StockEvent event) {
+        return new StockEventDTO(event.getId(), event.getSerial(), event.getName(), event.getLevel(), event.getPreviousLevel(),
+                event.getQuantity(), event.getMax(), event.getDelta(), event.getOccurredAt(), event.getDispatchSequence());
+    }
+}
@@ -0,0 +1,32 @@
+package one.digitalinnovation.productstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Response of a request, stored under the idempotency key the client sent with it. The response is
+ * {@code null} while the request is only claimed.
+ */
+@Data
+@Entity
+@Table(name = "idempotency_key", indexes = @Index(name = "ix_idempotency_key_created_at", columnList = "created_at"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    @Column(nullable = false, length = 255)
+    private String fingerprint;
+
+    @Column(length = 2000)
+    private String response;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
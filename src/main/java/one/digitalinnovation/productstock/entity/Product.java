@@ -2,23 +2,43 @@ package one.digitalinnovation.productstock.entity;
 
 import one.digitalinnovation.productstock.enums.ProductType;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
 
-import javax.persistence.*;
+import jakarta.persistence.*;
+import java.util.Objects;
 
-@Data
+/**
+ * Equality is the identity of the row: two instances are equal when they carry the same serial,
+ * whatever the state of their other fields, which also keeps them stable in hashed collections while
+ * the stock changes. The class is bytecode enhanced at build time, so Hibernate tracks the modified
+ * fields as setters are called instead of comparing every managed product with its snapshot on flush.
+ */
+@Getter
+@Setter
+@ToString(onlyExplicitlyIncluded = true)
 @Entity
+@Table(indexes = {
+        @Index(name = "ux_product_name", columnList = "name", unique = true),
+        @Index(name = "ix_product_type_serial", columnList = "type, serial"),
+        @Index(name = "ix_product_brand_serial", columnList = "brand, serial"),
+        @Index(name = "ix_product_type_purchase_price", columnList = "type, purchase_price")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
     @Id
+    @ToString.Include
     private Long serial;
 
-    @Column(nullable = false)
+    @ToString.Include
+    @Column(nullable = false, length = 200)
     private String name;
 
-    @Column(nullable = false)
+    @Column(nullable = false, length = 200)
     private String brand;
 
     @Column(nullable = false)
@@ -33,4 +53,24 @@ public class Product {
     @Column(nullable = false)
     @Enumerated(EnumType.STRING)
     private ProductType type;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || Hibernate.getClass(this) != Hibernate.getClass(other)) {
+            return false;
+        }
+        return serial != null && serial.equals(((Product) other).getSerial());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(serial);
+    }
 }
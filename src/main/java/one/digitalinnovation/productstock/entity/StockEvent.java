@@ -0,0 +1,61 @@
+package one.digitalinnovation.productstock.entity;
+
+import one.digitalinnovation.productstock.enums.StockLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Outbox entry of a product whose stock moved to another {@link StockLevel}. Written in the
+ * transaction of the stock movement and marked as dispatched once published.
+ * <p>
+ * The id is drawn when the event is written, so events do not commit in id order. The dispatch
+ * sequence is drawn by the dispatcher instead, in the order events are published, and is what stream
+ * subscribers resume from.
+ */
+@Data
+@Entity
+@Table(indexes = {
+        @Index(name = "ix_stock_event_dispatched_at", columnList = "dispatched_at, id"),
+        @Index(name = "ux_stock_event_dispatch_sequence", columnList = "dispatch_sequence", unique = true)
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long serial;
+
+    @Column(nullable = false, length = 200)
+    private String name;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private StockLevel level;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private StockLevel previousLevel;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private int max;
+
+    @Column(nullable = false)
+    private int delta;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    private Instant dispatchedAt;
+
+    private Long dispatchSequence;
+}
@@ -0,0 +1,24 @@
+package one.digitalinnovation.productstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * Last stock journal sequence of a stripe whose deltas are already applied to the product table.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockJournalCheckpoint {
+    @Id
+    private Integer stripe;
+
+    @Column(nullable = false)
+    private long sequence;
+}
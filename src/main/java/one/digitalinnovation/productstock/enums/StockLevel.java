@@ -0,0 +1,22 @@
+package one.digitalinnovation.productstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockLevel {
+
+    IN_STOCK("Em estoque"),
+    LOW_STOCK("Estoque baixo"),
+    OUT_OF_STOCK("Sem estoque");
+
+    private final String description;
+
+    public static StockLevel of(int quantity, int max, double lowStockRatio) {
+        if (quantity <= 0) {
+            return OUT_OF_STOCK;
+        }
+        return quantity < max * lowStockRatio ? LOW_STOCK : IN_STOCK;
+    }
+}
@@ -0,0 +1,156 @@
+package one.digitalinnovation.productstock.event;
+
+import one.digitalinnovation.productstock.config.StockEventProperties;
+import one.digitalinnovation.productstock.dto.StockEventDTO;
+import one.digitalinnovation.productstock.repository.StockEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the dispatched stock events to the Server-Sent Events subscribers. Events are sent once
+ * the dispatch commits, and a subscriber reconnecting with the id of the last event it received, its
+ * dispatch sequence, is first sent the events dispatched since then, as long as they are still
+ * retained in the outbox.
+ * <p>
+ * Every subscriber is written to by a virtual thread of its own, from a queue of at most
+ * {@code product.stock.events.stream-backlog} batches, so a slow or stuck subscriber never holds up
+ * the dispatcher or the other subscribers. A subscriber that lets its queue fill up is disconnected,
+ * and catches up from its last event when it reconnects.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class SseStockEventPublisher implements StockEventPublisher {
+    public static final String EVENT_NAME = "stock-level";
+
+    private final StockEventRepository stockEventRepository;
+    private final StockEventProperties properties;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.getStreamTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, properties.getStreamBacklog());
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscriber));
+        subscriber.writer = Thread.ofVirtual()
+                .name("stock-event-stream")
+                .unstarted(() -> stream(subscriber, lastEventId));
+        // registered before the replay, so an event dispatched meanwhile is queued and skipped if replayed
+        subscribers.add(subscriber);
+        subscriber.writer.start();
+        return emitter;
+    }
+
+    public int getSubscribers() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void publish(List<StockEventDTO> events) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            broadcast(events);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                broadcast(events);
+            }
+        });
+    }
+
+    private void broadcast(List<StockEventDTO> events) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.pending.offer(events)) {
+                log.debug("Disconnecting a stock event subscriber that is {} batches behind", properties.getStreamBacklog());
+                unsubscribe(subscriber);
+            }
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.writer.interrupt();
+    }
+
+    private void stream(Subscriber subscriber, Long lastEventId) {
+        try {
+            if (lastEventId != null && !replay(subscriber, lastEventId)) {
+                return;
+            }
+            while (subscribers.contains(subscriber)) {
+                if (!send(subscriber, subscriber.pending.take())) {
+                    return;
+                }
+            }
+            subscriber.emitter.complete();
+        } catch (InterruptedException e) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private boolean replay(Subscriber subscriber, Long lastEventId) {
+        subscriber.lastSent = lastEventId;
+        List<StockEventDTO> missedEvents;
+        do {
+            missedEvents = stockEventRepository.findByDispatchSequenceGreaterThanOrderByDispatchSequenceAsc(subscriber.lastSent,
+                            PageRequest.of(0, properties.getBatchSize()))
+                    .stream()
+                    .map(StockEventDTO::of)
+                    .collect(Collectors.toList());
+            if (!send(subscriber, missedEvents)) {
+                return false;
+            }
+        } while (missedEvents.size() == properties.getBatchSize());
+        return true;
+    }
+
+    private boolean send(Subscriber subscriber, List<StockEventDTO> events) {
+        try {
+            for (StockEventDTO event : events) {
+                if (event.getDispatchSequence() <= subscriber.lastSent) {
+                    continue;
+                }
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(event.getDispatchSequence().toString())
+                        .name(EVENT_NAME)
+                        .data(event, MediaType.APPLICATION_JSON));
+                subscriber.lastSent = event.getDispatchSequence();
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<List<StockEventDTO>> pending;
+        private Thread writer;
+        private long lastSent;
+
+        private Subscriber(SseEmitter emitter, int backlog) {
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(backlog);
+        }
+    }
+}
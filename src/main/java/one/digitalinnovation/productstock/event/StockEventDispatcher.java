@@ -0,0 +1,104 @@
+package one.digitalinnovation.productstock.event;
+
+import one.digitalinnovation.productstock.config.StockEventProperties;
+import one.digitalinnovation.productstock.dto.StockEventDTO;
+import one.digitalinnovation.productstock.entity.StockEvent;
+import one.digitalinnovation.productstock.repository.StockEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the stock event outbox on a background thread, handing the pending events to every
+ * {@link StockEventPublisher} in batches and marking them as dispatched in the same transaction. Each
+ * event is given the next dispatch sequence as it is published, so the sequence follows the order in
+ * which events are published, even when they were committed out of id order.
+ * Dispatched events are kept for {@code product.stock.events.retention}, so that stream subscribers
+ * can catch up after a reconnection, and deleted afterwards.
+ * <p>
+ * As the stock engine, the dispatcher expects a single application instance per database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class StockEventDispatcher {
+    private final StockEventRepository stockEventRepository;
+    private final List<StockEventPublisher> publishers;
+    private final StockEventProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private ScheduledExecutorService dispatcher;
+
+    @PostConstruct
+    public void start() {
+        long dispatchInterval = properties.getDispatchInterval().toMillis();
+        dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-event-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(this::dispatchQuietly, dispatchInterval, dispatchInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(properties.getDispatchInterval().toMillis() + 10_000, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publishes the pending events until the outbox is drained and purges the expired ones.
+     *
+     * @return how many events were published
+     */
+    public int dispatch() {
+        int dispatched = 0;
+        int batchSize;
+        do {
+            batchSize = transactionTemplate.execute(status -> dispatchBatch());
+            dispatched += batchSize;
+        } while (batchSize == properties.getBatchSize());
+
+        Instant dispatchedBefore = Instant.now().minus(properties.getRetention());
+        transactionTemplate.executeWithoutResult(status -> stockEventRepository.deleteDispatchedBefore(dispatchedBefore));
+        return dispatched;
+    }
+
+    private void dispatchQuietly() {
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            log.warn("Could not dispatch stock events, they will be retried on the next dispatch", e);
+        }
+    }
+
+    private int dispatchBatch() {
+        List<StockEvent> events = stockEventRepository.findByDispatchedAtIsNullOrderByIdAsc(PageRequest.of(0, properties.getBatchSize()));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        long dispatchSequence = stockEventRepository.findLastDispatchSequence();
+        Instant dispatchedAt = Instant.now();
+        for (StockEvent event : events) {
+            event.setDispatchSequence(++dispatchSequence);
+            event.setDispatchedAt(dispatchedAt);
+        }
+        List<StockEventDTO> eventDTOs = events.stream()
+                .map(StockEventDTO::of)
+                .collect(Collectors.toList());
+        publishers.forEach(publisher -> publisher.publish(eventDTOs));
+        return events.size();
+    }
+}
@@ -0,0 +1,34 @@
+package one.digitalinnovation.productstock.event;
+
+import one.digitalinnovation.productstock.config.StockEventProperties;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.entity.StockEvent;
+import one.digitalinnovation.productstock.enums.StockLevel;
+import one.digitalinnovation.productstock.repository.StockEventRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Writes a stock event to the outbox table whenever a stock movement takes a product to another
+ * {@link StockLevel}. It is called inside the transaction of the movement, so the event is stored
+ * if and only if the movement commits; {@link StockEventDispatcher} publishes it afterwards.
+ */
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class StockEventOutbox {
+    private final StockEventRepository stockEventRepository;
+    private final StockEventProperties properties;
+
+    public void record(ProductDTO productDTO, int delta) {
+        StockLevel level = StockLevel.of(productDTO.getQuantity(), productDTO.getMax(), properties.getLowStockRatio());
+        StockLevel previousLevel = StockLevel.of(productDTO.getQuantity() - delta, productDTO.getMax(), properties.getLowStockRatio());
+        if (level == previousLevel) {
+            return;
+        }
+        stockEventRepository.save(new StockEvent(null, productDTO.getSerial(), productDTO.getName(), level, previousLevel,
+                productDTO.getQuantity(), productDTO.getMax(), delta, Instant.now(), null, null));
+    }
+}
@@ -0,0 +1,15 @@
+package one.digitalinnovation.productstock.event;
+
+import one.digitalinnovation.productstock.dto.StockEventDTO;
+
+import java.util.List;
+
+/**
+ * Destination of the stock events dispatched from the outbox. Every publisher bean receives the
+ * batches in outbox order, inside the transaction that marks them as dispatched: throwing rolls the
+ * batch back and it is published again on the next dispatch, so a message broker publisher gets
+ * at-least-once delivery.
+ */
+public interface StockEventPublisher {
+    void publish(List<StockEventDTO> events);
+}
@@ -0,0 +1,7 @@
+package one.digitalinnovation.productstock.exception;
+
+public abstract class IdempotencyKeyException extends Exception {
+    protected IdempotencyKeyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package one.digitalinnovation.productstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyKeyInProgressException extends IdempotencyKeyException {
+    public IdempotencyKeyInProgressException(String key) {
+        super(String.format("A request with idempotency key %s is still in progress, try again later.", key));
+    }
+}
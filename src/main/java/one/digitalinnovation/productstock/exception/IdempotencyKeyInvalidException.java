@@ -0,0 +1,11 @@
+package one.digitalinnovation.productstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class IdempotencyKeyInvalidException extends IdempotencyKeyException {
+    public IdempotencyKeyInvalidException(int maxLength) {
+        super(String.format("Idempotency key must have 1 to %s printable ASCII characters.", maxLength));
+    }
+}
@@ -0,0 +1,11 @@
+package one.digitalinnovation.productstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyReusedException extends IdempotencyKeyException {
+    public IdempotencyKeyReusedException(String key) {
+        super(String.format("Idempotency key %s was already used for a different request.", key));
+    }
+}
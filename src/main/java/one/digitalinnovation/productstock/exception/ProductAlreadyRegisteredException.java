@@ -8,4 +8,8 @@ public class ProductAlreadyRegisteredException extends Exception{
     public ProductAlreadyRegisteredException(String productName) {
         super(String.format("Product with name %s already registered in the system.", productName));
     }
+
+    public ProductAlreadyRegisteredException(Long serial) {
+        super(String.format("Product with serial %s already registered in the system.", serial));
+    }
 }
@@ -0,0 +1,11 @@
+package one.digitalinnovation.productstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ProductImportException extends Exception {
+    public ProductImportException(long imported, String reason) {
+        super(String.format("Product import stopped after %s imported products: %s", imported, reason));
+    }
+}
@@ -0,0 +1,11 @@
+package one.digitalinnovation.productstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ProductStockConflictException extends Exception {
+    public ProductStockConflictException(int attempts) {
+        super(String.format("Stock was changed concurrently on every one of the %s attempts, try again later.", attempts));
+    }
+}
@@ -0,0 +1,144 @@
+package one.digitalinnovation.productstock.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.productstock.config.IdempotencyProperties;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.entity.IdempotencyRecord;
+import one.digitalinnovation.productstock.repository.IdempotencyRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Store backed by the {@code idempotency_key} table, selected with
+ * {@code product.idempotency.store=database}. Keys survive restarts and are shared by every
+ * application instance on the same database; expired keys are purged on a background thread.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "product.idempotency.store", havingValue = "database")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+    /**
+     * SQL state of a unique violation, which on this table can only be a duplicate key.
+     */
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private ScheduledExecutorService purger;
+
+    @PostConstruct
+    public void start() {
+        long purgeInterval = properties.getPurgeInterval().toMillis();
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-key-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeQuietly, purgeInterval, purgeInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        purger.shutdownNow();
+    }
+
+    @Override
+    public Optional<IdempotentResponse> find(String key) {
+        return idempotencyRecordRepository.findByKeyAndCreatedAtAfter(key, Instant.now().minus(properties.getTtl()))
+                .map(record -> new IdempotentResponse(record.getFingerprint(),
+                        record.getResponse() == null ? null : read(record.getResponse())));
+    }
+
+    /**
+     * Inserts the claim in a transaction of its own, replacing an expired key that was not purged yet.
+     * Only a duplicate key means that the key was claimed concurrently; any other failure is rethrown.
+     */
+    @Override
+    public boolean claim(String key, String fingerprint) {
+        Instant now = Instant.now();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                idempotencyRecordRepository.deleteByKeyCreatedBefore(key, now.minus(properties.getTtl()));
+                idempotencyRecordRepository.insertClaim(key, fingerprint, now);
+            });
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            if (!isDuplicateKey(e)) {
+                throw e;
+            }
+            log.debug("Idempotency key {} was claimed concurrently", key);
+            return false;
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponse response) {
+        String written;
+        try {
+            written = objectMapper.writeValueAsString(response.getResponse());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.complete(key, written));
+    }
+
+    @Override
+    public void release(String key) {
+        transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.deleteClaim(key));
+    }
+
+    /**
+     * Deletes the keys older than {@code product.idempotency.ttl}.
+     *
+     * @return how many keys were deleted
+     */
+    public int purge() {
+        Instant createdBefore = Instant.now().minus(properties.getTtl());
+        return transactionTemplate.execute(status -> idempotencyRecordRepository.deleteCreatedBefore(createdBefore));
+    }
+
+    private void purgeQuietly() {
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            log.warn("Could not purge expired idempotency keys, they will be purged on the next run", e);
+        }
+    }
+
+    private static boolean isDuplicateKey(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                return UNIQUE_VIOLATION.equals(((ConstraintViolationException) cause).getSQLState());
+            }
+        }
+        return false;
+    }
+
+    private ProductDTO read(String response) {
+        try {
+            return objectMapper.readValue(response, ProductDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package one.digitalinnovation.productstock.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Keeps the responses of requests by idempotency key for {@code product.idempotency.ttl}. A key is
+ * claimed before its request runs and completed with the response afterwards, so that a retry always
+ * finds either the response or the claim, whatever happened in between.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * @return the stored response, without {@link IdempotentResponse#getResponse() response} while the
+     * key is only claimed
+     */
+    Optional<IdempotentResponse> find(String key);
+
+    /**
+     * Claims a key that is not stored yet for a request with the given fingerprint.
+     *
+     * @return whether the key was claimed, {@code false} if it is already stored
+     */
+    boolean claim(String key, String fingerprint);
+
+    void complete(String key, IdempotentResponse response);
+
+    /**
+     * Removes the claim of a request that failed without moving the stock, so that it can be retried.
+     */
+    void release(String key);
+}
@@ -0,0 +1,179 @@
+package one.digitalinnovation.productstock.idempotency;
+
+import one.digitalinnovation.productstock.config.IdempotencyProperties;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.exception.IdempotencyKeyException;
+import one.digitalinnovation.productstock.exception.IdempotencyKeyInProgressException;
+import one.digitalinnovation.productstock.exception.IdempotencyKeyReusedException;
+import one.digitalinnovation.productstock.exception.ProductNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a stock operation at most once per idempotency key. The key is claimed in the
+ * {@link IdempotencyStore} before the operation runs and completed with its response afterwards, so a
+ * retry either gets the stored response back or finds the claim, and never runs the operation again.
+ * A retry finding the claim waits for the response, up to {@code product.idempotency.in-flight-timeout},
+ * and is then rejected.
+ * <p>
+ * A failed attempt releases its claim, so that it can be retried, unless its movement reported through
+ * {@link #movementCommitted()} or {@link #movementCommittedOnCommit()} that it was committed before the
+ * failure. A claim left by such an attempt, or by an instance that died, keeps rejecting retries until
+ * the key expires, as the stock may already have moved.
+ * <p>
+ * Attempts within the same instance wait for each other in memory; across instances, with the
+ * database store, they poll the claim.
+ */
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class IdempotentRequests {
+    private static final Duration CLAIM_POLL_INTERVAL = Duration.ofMillis(20);
+    private static final ThreadLocal<AtomicBoolean> MOVEMENT_COMMITTED = new ThreadLocal<>();
+
+    private final IdempotencyStore idempotencyStore;
+    private final IdempotencyProperties properties;
+
+    private final ConcurrentMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param key         idempotency key sent by the client, or {@code null} to run the operation unconditionally
+     * @param fingerprint identifies the request, a key can only be replayed for the same fingerprint
+     */
+    public <E extends Exception> ProductDTO execute(String key, String fingerprint, StockOperation<E> operation)
+            throws ProductNotFoundException, E, IdempotencyKeyException {
+        if (key == null) {
+            return operation.apply();
+        }
+        long deadline = System.nanoTime() + properties.getInFlightTimeout().toNanos();
+        while (true) {
+            Optional<IdempotentResponse> stored = idempotencyStore.find(key);
+            if (stored.isPresent()) {
+                if (!stored.get().getFingerprint().equals(fingerprint)) {
+                    throw new IdempotencyKeyReusedException(key);
+                }
+                if (stored.get().isCompleted()) {
+                    return stored.get().getResponse();
+                }
+                await(key, deadline);
+                continue;
+            }
+            if (!idempotencyStore.claim(key, fingerprint)) {
+                // another attempt claimed the key since the lookup
+                await(key, deadline);
+                continue;
+            }
+            CompletableFuture<Void> execution = new CompletableFuture<>();
+            inFlight.put(key, execution);
+            try {
+                ProductDTO response = apply(key, operation);
+                idempotencyStore.complete(key, new IdempotentResponse(fingerprint, response));
+                return response;
+            } finally {
+                inFlight.remove(key, execution);
+                execution.complete(null);
+            }
+        }
+    }
+
+    private <E extends Exception> ProductDTO apply(String key, StockOperation<E> operation) throws ProductNotFoundException, E {
+        AtomicBoolean committed = new AtomicBoolean();
+        MOVEMENT_COMMITTED.set(committed);
+        try {
+            return operation.apply();
+        } catch (RuntimeException e) {
+            if (!committed.get()) {
+                release(key, e);
+            }
+            throw e;
+        } catch (Exception e) {
+            release(key, e);
+            throw e;
+        } finally {
+            MOVEMENT_COMMITTED.remove();
+        }
+    }
+
+    private void release(String key, Exception failure) {
+        try {
+            idempotencyStore.release(key);
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Tells the idempotent request running on this thread, if any, that its movement is committed, so
+     * that a failure from now on keeps the claim instead of letting a retry move the stock again.
+     */
+    public static void movementCommitted() {
+        AtomicBoolean committed = MOVEMENT_COMMITTED.get();
+        if (committed != null) {
+            committed.set(true);
+        }
+    }
+
+    /**
+     * As {@link #movementCommitted()}, once the current transaction commits. The flag is set before
+     * any other after-commit callback runs, so a failing callback can not hide the commit.
+     */
+    public static void movementCommittedOnCommit() {
+        AtomicBoolean committed = MOVEMENT_COMMITTED.get();
+        if (committed == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committed.set(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCommit() {
+                committed.set(true);
+            }
+        });
+    }
+
+    private void await(String key, long deadline) throws IdempotencyKeyInProgressException {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            throw new IdempotencyKeyInProgressException(key);
+        }
+        CompletableFuture<Void> running = inFlight.get(key);
+        try {
+            if (running != null) {
+                running.get(remaining, TimeUnit.NANOSECONDS);
+            } else {
+                TimeUnit.NANOSECONDS.sleep(Math.min(remaining, CLAIM_POLL_INTERVAL.toNanos()));
+            }
+        } catch (TimeoutException | ExecutionException e) {
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(key);
+        }
+    }
+
+    @FunctionalInterface
+    public interface StockOperation<E extends Exception> {
+        ProductDTO apply() throws ProductNotFoundException, E;
+    }
+}
@@ -0,0 +1,25 @@
+package one.digitalinnovation.productstock.idempotency;
+
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response stored for an idempotency key, together with the fingerprint of the request that
+ * produced it, so that the key can not be replayed for a different request. The response is
+ * {@code null} while the key is only claimed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotentResponse {
+
+    private String fingerprint;
+
+    private ProductDTO response;
+
+    public boolean isCompleted() {
+        return response != null;
+    }
+}
@@ -0,0 +1,48 @@
+package one.digitalinnovation.productstock.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import one.digitalinnovation.productstock.config.IdempotencyProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Default store, bounded to {@code product.idempotency.maximum-keys} keys. Keys are lost on restart
+ * and are not shared between application instances.
+ */
+@Component
+@ConditionalOnProperty(name = "product.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+    private final Cache<String, IdempotentResponse> responses;
+
+    @Autowired
+    public InMemoryIdempotencyStore(IdempotencyProperties properties) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumKeys())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+    }
+
+    @Override
+    public Optional<IdempotentResponse> find(String key) {
+        return Optional.ofNullable(responses.getIfPresent(key));
+    }
+
+    @Override
+    public boolean claim(String key, String fingerprint) {
+        return responses.asMap().putIfAbsent(key, new IdempotentResponse(fingerprint, null)) == null;
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponse response) {
+        responses.put(key, response);
+    }
+
+    @Override
+    public void release(String key) {
+        responses.asMap().computeIfPresent(key, (claimed, stored) -> stored.isCompleted() ? stored : null);
+    }
+}
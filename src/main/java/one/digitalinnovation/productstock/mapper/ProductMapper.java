@@ -3,12 +3,14 @@ package one.digitalinnovation.productstock.mapper;
 import one.digitalinnovation.productstock.dto.ProductDTO;
 import one.digitalinnovation.productstock.entity.Product;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
 public interface ProductMapper {
     ProductMapper INSTANCE = Mappers.getMapper(ProductMapper.class);
 
+    @Mapping(target = "version", ignore = true)
     Product toModel(ProductDTO productDTO);
 
     ProductDTO toDTO(Product product);
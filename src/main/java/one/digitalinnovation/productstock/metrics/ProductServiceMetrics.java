@@ -0,0 +1,65 @@
+package one.digitalinnovation.productstock.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import one.digitalinnovation.productstock.exception.ProductAlreadyRegisteredException;
+import one.digitalinnovation.productstock.exception.ProductNotFoundException;
+import one.digitalinnovation.productstock.exception.ProductStockConflictException;
+import one.digitalinnovation.productstock.exception.ProductStockExceededException;
+import one.digitalinnovation.productstock.exception.ProductStockException;
+import lombok.AllArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public {@code ProductService} operation, tagged with the operation name and its
+ * outcome. Percentiles and histogram buckets are configured through
+ * {@code management.metrics.distribution.*.product.service}.
+ */
+@Aspect
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ProductServiceMetrics {
+    public static final String TIMER = "product.service";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * one.digitalinnovation.productstock.service.ProductService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(TIMER)
+                    .tag("operation", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private String outcome(Throwable e) {
+        if (e instanceof ProductNotFoundException) {
+            return "not-found";
+        }
+        if (e instanceof ProductStockExceededException) {
+            return "stock-exceeded";
+        }
+        if (e instanceof ProductStockException) {
+            return "stock-insufficient";
+        }
+        if (e instanceof ProductAlreadyRegisteredException) {
+            return "already-registered";
+        }
+        if (e instanceof ProductStockConflictException) {
+            return "conflict";
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,39 @@
+package one.digitalinnovation.productstock.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.productstock.enums.ProductType;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Counts the stock units moved in and out of the store, per product type. Movements made inside a
+ * transaction are counted only after it commits, so retried or rolled back adjustments are not.
+ */
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ProductStockMetrics {
+    public static final String UNITS_METRIC = "product.stock.units";
+
+    private final MeterRegistry meterRegistry;
+
+    public void recordMovement(ProductType type, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        Runnable count = () -> meterRegistry.counter(UNITS_METRIC, "type", type.name(), "direction", delta > 0 ? "in" : "out")
+                .increment(Math.abs((double) delta));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            count.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                count.run();
+            }
+        });
+    }
+}
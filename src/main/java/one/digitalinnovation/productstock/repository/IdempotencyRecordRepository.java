@@ -0,0 +1,37 @@
+package one.digitalinnovation.productstock.repository;
+
+import one.digitalinnovation.productstock.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    Optional<IdempotencyRecord> findByKeyAndCreatedAtAfter(String key, Instant createdAfter);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :createdBefore")
+    int deleteCreatedBefore(@Param("createdBefore") Instant createdBefore);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.createdAt < :createdBefore")
+    int deleteByKeyCreatedBefore(@Param("key") String key, @Param("createdBefore") Instant createdBefore);
+
+    /**
+     * Fails with a {@link org.springframework.dao.DataIntegrityViolationException} if the key is already stored.
+     */
+    @Modifying
+    @Query("INSERT INTO IdempotencyRecord (key, fingerprint, createdAt) VALUES (:key, :fingerprint, :createdAt)")
+    int insertClaim(@Param("key") String key, @Param("fingerprint") String fingerprint, @Param("createdAt") Instant createdAt);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.response = :response WHERE r.key = :key")
+    int complete(@Param("key") String key, @Param("response") String response);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.response IS NULL")
+    int deleteClaim(@Param("key") String key);
+}
@@ -1,10 +1,83 @@
 package one.digitalinnovation.productstock.repository;
 
+import one.digitalinnovation.productstock.dto.ProductDTO;
 import one.digitalinnovation.productstock.entity.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+    /**
+     * Constructor expression of the read-only queries: they build the DTOs straight from the result
+     * set, without managed entities to snapshot or to copy through the mapper.
+     */
+    String PRODUCT_DTO = "new one.digitalinnovation.productstock.dto.ProductDTO(" +
+            "p.serial, p.name, p.brand, p.quantity, p.max, p.purchasePrice, p.type)";
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
     Optional<Product> findByName(String name);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.serial = :serial")
+    Optional<Product> findForUpdate(@Param("serial") Long serial);
+
+    @Query("SELECT " + PRODUCT_DTO + " FROM Product p WHERE p.name = :name")
+    Optional<ProductDTO> findDTOByName(@Param("name") String name);
+
+    @Query("SELECT " + PRODUCT_DTO + " FROM Product p WHERE p.serial = :serial")
+    Optional<ProductDTO> findDTOBySerial(@Param("serial") Long serial);
+
+    @Query("SELECT " + PRODUCT_DTO + " FROM Product p")
+    List<ProductDTO> findAllDTOs();
+
+    @Query("SELECT " + PRODUCT_DTO + " FROM Product p WHERE p.serial IN :serials")
+    List<ProductDTO> findDTOsBySerialIn(@Param("serials") Collection<Long> serials);
+
+    @Query("SELECT p.name FROM Product p WHERE p.name IN :names")
+    Set<String> findExistingNames(@Param("names") Collection<String> names);
+
+    @Query("SELECT p.serial FROM Product p WHERE p.serial IN :serials")
+    Set<Long> findExistingSerials(@Param("serials") Collection<Long> serials);
+
+    @Query("SELECT " + PRODUCT_DTO + " FROM Product p ORDER BY p.serial")
+    List<ProductDTO> findDTOsOrderedBySerial(Pageable pageable);
+
+    @Query("SELECT " + PRODUCT_DTO + " FROM Product p WHERE p.serial > :serial ORDER BY p.serial")
+    List<ProductDTO> findDTOsBySerialGreaterThan(@Param("serial") Long serial, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.serial")
+    Stream<Product> streamAllOrderedBySerial();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :quantity, p.version = p.version + 1 " +
+            "WHERE p.serial = :serial AND p.quantity + :quantity <= p.max")
+    int incrementQuantity(@Param("serial") Long serial, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = p.quantity - :quantity, p.version = p.version + 1 " +
+            "WHERE p.serial = :serial AND p.quantity >= :quantity")
+    int decrementQuantity(@Param("serial") Long serial, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :delta, p.version = p.version + 1 WHERE p.serial = :serial")
+    int addQuantity(@Param("serial") Long serial, @Param("delta") int delta);
 }
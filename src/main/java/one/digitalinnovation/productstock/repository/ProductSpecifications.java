@@ -0,0 +1,69 @@
+package one.digitalinnovation.productstock.repository;
+
+import one.digitalinnovation.productstock.dto.ProductFilterDTO;
+import one.digitalinnovation.productstock.entity.Product;
+import one.digitalinnovation.productstock.enums.ProductType;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Criteria used to search products. Type and brand are equality filters, so that they can use the
+ * {@code (type, serial)} and {@code (brand, serial)} indexes while the page is read in serial order.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> matching(ProductFilterDTO filter, Long cursor) {
+        Specification<Product> specification = Specification.where(serialGreaterThan(cursor));
+        if (filter.getType() != null) {
+            specification = specification.and(hasType(filter.getType()));
+        }
+        if (filter.getBrand() != null) {
+            specification = specification.and(hasBrand(filter.getBrand()));
+        }
+        if (filter.getMinPrice() != null) {
+            specification = specification.and(purchasePriceAtLeast(filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            specification = specification.and(purchasePriceAtMost(filter.getMaxPrice()));
+        }
+        if (filter.getLowStockBelow() != null) {
+            specification = specification.and(quantityBelow(filter.getLowStockBelow()));
+        }
+        if (filter.getLowStockRatio() != null) {
+            specification = specification.and(quantityBelowRatioOfMax(filter.getLowStockRatio()));
+        }
+        return specification;
+    }
+
+    public static Specification<Product> serialGreaterThan(Long cursor) {
+        return (root, query, builder) -> cursor == null ? null : builder.greaterThan(root.get("serial"), cursor);
+    }
+
+    public static Specification<Product> hasType(ProductType type) {
+        return (root, query, builder) -> builder.equal(root.get("type"), type);
+    }
+
+    public static Specification<Product> hasBrand(String brand) {
+        return (root, query, builder) -> builder.equal(root.get("brand"), brand);
+    }
+
+    public static Specification<Product> purchasePriceAtLeast(double minPrice) {
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("purchasePrice"), minPrice);
+    }
+
+    public static Specification<Product> purchasePriceAtMost(double maxPrice) {
+        return (root, query, builder) -> builder.lessThanOrEqualTo(root.get("purchasePrice"), maxPrice);
+    }
+
+    public static Specification<Product> quantityBelow(int threshold) {
+        return (root, query, builder) -> builder.lessThan(root.get("quantity"), threshold);
+    }
+
+    public static Specification<Product> quantityBelowRatioOfMax(double ratio) {
+        return (root, query, builder) -> builder.lessThan(
+                builder.toDouble(root.get("quantity")),
+                builder.prod(builder.toDouble(root.get("max")), ratio));
+    }
+}
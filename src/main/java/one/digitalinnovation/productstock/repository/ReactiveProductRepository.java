@@ -0,0 +1,103 @@
+package one.digitalinnovation.productstock.repository;
+
+import io.r2dbc.spi.Readable;
+import one.digitalinnovation.productstock.entity.Product;
+import one.digitalinnovation.productstock.enums.ProductType;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking access to the product table for the reactive stack. The queries mirror the ones
+ * {@link ProductRepository} runs through JPA.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ReactiveProductRepository {
+    private static final String SELECT_PRODUCT = "SELECT serial, name, brand, quantity, max, purchase_price, type, version FROM product ";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Product> findByName(String name) {
+        return databaseClient.sql(SELECT_PRODUCT + "WHERE name = :name")
+                .bind("name", name)
+                .map(this::toProduct)
+                .one();
+    }
+
+    public Mono<Product> findById(Long serial) {
+        return databaseClient.sql(SELECT_PRODUCT + "WHERE serial = :serial")
+                .bind("serial", serial)
+                .map(this::toProduct)
+                .one();
+    }
+
+    public Flux<Product> findAllOrderedBySerial() {
+        return databaseClient.sql(SELECT_PRODUCT + "ORDER BY serial")
+                .map(this::toProduct)
+                .all();
+    }
+
+    public Flux<Product> findBySerialGreaterThanOrderBySerial(long cursor, int limit) {
+        return databaseClient.sql(SELECT_PRODUCT + "WHERE serial > :cursor ORDER BY serial LIMIT :limit")
+                .bind("cursor", cursor)
+                .bind("limit", limit)
+                .map(this::toProduct)
+                .all();
+    }
+
+    public Mono<Long> insert(Product product) {
+        return databaseClient.sql("INSERT INTO product (serial, name, brand, quantity, max, purchase_price, type, version) " +
+                        "VALUES (:serial, :name, :brand, :quantity, :max, :purchasePrice, :type, 0)")
+                .bind("serial", product.getSerial())
+                .bind("name", product.getName())
+                .bind("brand", product.getBrand())
+                .bind("quantity", product.getQuantity())
+                .bind("max", product.getMax())
+                .bind("purchasePrice", product.getPurchasePrice())
+                .bind("type", product.getType().name())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteById(Long serial) {
+        return databaseClient.sql("DELETE FROM product WHERE serial = :serial")
+                .bind("serial", serial)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> incrementQuantity(Long serial, int quantity) {
+        return databaseClient.sql("UPDATE product SET quantity = quantity + :quantity, version = version + 1 " +
+                        "WHERE serial = :serial AND quantity + :quantity <= max")
+                .bind("serial", serial)
+                .bind("quantity", quantity)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> decrementQuantity(Long serial, int quantity) {
+        return databaseClient.sql("UPDATE product SET quantity = quantity - :quantity, version = version + 1 " +
+                        "WHERE serial = :serial AND quantity >= :quantity")
+                .bind("serial", serial)
+                .bind("quantity", quantity)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Product toProduct(Readable row) {
+        return new Product(row.get("serial", Long.class),
+                row.get("name", String.class),
+                row.get("brand", String.class),
+                row.get("quantity", Integer.class),
+                row.get("max", Integer.class),
+                row.get("purchase_price", Double.class),
+                ProductType.valueOf(row.get("type", String.class)),
+                row.get("version", Long.class));
+    }
+}
@@ -0,0 +1,28 @@
+package one.digitalinnovation.productstock.repository;
+
+import one.digitalinnovation.productstock.entity.StockEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface StockEventRepository extends JpaRepository<StockEvent, Long> {
+    List<StockEvent> findByDispatchedAtIsNullOrderByIdAsc(Pageable pageable);
+
+    List<StockEvent> findByDispatchSequenceGreaterThanOrderByDispatchSequenceAsc(Long dispatchSequence, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.dispatchSequence), 0) FROM StockEvent e")
+    long findLastDispatchSequence();
+
+    /**
+     * Keeps the last dispatched event whatever its age, so that the dispatch sequence carries on from it.
+     */
+    @Modifying
+    @Query("DELETE FROM StockEvent e WHERE e.dispatchedAt < :dispatchedBefore"
+            + " AND e.dispatchSequence < (SELECT MAX(l.dispatchSequence) FROM StockEvent l)")
+    int deleteDispatchedBefore(@Param("dispatchedBefore") Instant dispatchedBefore);
+}
@@ -0,0 +1,7 @@
+package one.digitalinnovation.productstock.repository;
+
+import one.digitalinnovation.productstock.entity.StockJournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StockJournalCheckpointRepository extends JpaRepository<StockJournalCheckpoint, Integer> {
+}
@@ -0,0 +1,344 @@
+package one.digitalinnovation.productstock.search;
+
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.dto.ProductSearchHitDTO;
+import one.digitalinnovation.productstock.entity.Product;
+import one.digitalinnovation.productstock.enums.ProductType;
+import one.digitalinnovation.productstock.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory type-ahead index over product names and brands. Both are split into terms folded to
+ * lower case without accents; a sorted term dictionary answers prefix lookups and a trigram index
+ * over the dictionary finds terms within one or two typos of the query.
+ * <p>
+ * Every query term has to match a name or brand term of a product for it to be returned. Exact
+ * matches rank above prefix matches, which rank above typo matches, and name matches weigh twice
+ * as much as brand matches.
+ * <p>
+ * The index is built from the product table in the background once the application is ready, so
+ * startup time does not grow with the catalog; until then searches only see the products indexed
+ * so far. It follows the products created and deleted through this application instance, after
+ * their transactions commit, including those deleted while it is being built.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ProductSearchIndex {
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final double NAME_WEIGHT = 1.0;
+    private static final double BRAND_WEIGHT = 0.5;
+    private static final double EXACT_SCORE = 1.0;
+    private static final double PREFIX_SCORE = 0.6;
+    private static final double FUZZY_SCORE = 0.4;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int TWO_EDITS_LENGTH = 8;
+    private static final Comparator<ProductSearchHitDTO> RANKING = Comparator.comparingDouble(ProductSearchHitDTO::getScore).reversed()
+            .thenComparingInt(hit -> hit.getName().length())
+            .thenComparing(ProductSearchHitDTO::getSerial);
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<String, Set<Long>> nameTerms = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<String, Set<Long>> brandTerms = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new ConcurrentHashMap<>();
+    private final Set<Long> removedWhileBuilding = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean building;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        Thread thread = new Thread(this::build, "product-search-index-build");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Indexes every product of the table. A product deleted while the table is read may still be
+     * streamed, so the deletions reported meanwhile are applied again at the end.
+     */
+    public void build() {
+        long started = System.nanoTime();
+        building = true;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Product> products = productRepository.streamAllOrderedBySerial()) {
+                    products.forEach(product -> {
+                        index(new Document(product.getSerial(), product.getName(), product.getBrand(), product.getType()));
+                        entityManager.detach(product);
+                    });
+                }
+            });
+        } finally {
+            building = false;
+            removedWhileBuilding.forEach(this::unindex);
+            removedWhileBuilding.clear();
+        }
+        log.info("Indexed {} products for search in {} ms", documents.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    public void add(ProductDTO productDTO) {
+        Document document = new Document(productDTO.getSerial(), productDTO.getName(), productDTO.getBrand(), productDTO.getType());
+        afterCommit(() -> index(document));
+    }
+
+    public void remove(Long serial) {
+        afterCommit(() -> {
+            if (building) {
+                removedWhileBuilding.add(serial);
+            }
+            unindex(serial);
+        });
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public List<ProductSearchHitDTO> search(String query, int limit) {
+        Set<String> queryTerms = terms(query);
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Double> scores = null;
+        for (String queryTerm : queryTerms) {
+            Map<String, Integer> similarTerms = similarTerms(queryTerm);
+            Map<Long, Double> termScores = new HashMap<>();
+            match(nameTerms, queryTerm, similarTerms, NAME_WEIGHT, termScores);
+            match(brandTerms, queryTerm, similarTerms, BRAND_WEIGHT, termScores);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((serial, score) -> score + termScores.get(serial));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+        return top(scores, Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+
+    private void match(ConcurrentNavigableMap<String, Set<Long>> terms, String queryTerm, Map<String, Integer> similarTerms,
+                       double weight, Map<Long, Double> scores) {
+        terms.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).forEach((term, serials) -> {
+            double score = term.length() == queryTerm.length()
+                    ? EXACT_SCORE
+                    : PREFIX_SCORE * (1 + (double) queryTerm.length() / term.length()) / 2;
+            serials.forEach(serial -> scores.merge(serial, score * weight, Math::max));
+        });
+        similarTerms.forEach((term, distance) -> {
+            Set<Long> serials = terms.get(term);
+            if (serials != null) {
+                serials.forEach(serial -> scores.merge(serial, FUZZY_SCORE / distance * weight, Math::max));
+            }
+        });
+    }
+
+    private Map<String, Integer> similarTerms(String queryTerm) {
+        if (queryTerm.length() < MIN_FUZZY_LENGTH) {
+            return Map.of();
+        }
+        int maxEdits = queryTerm.length() < TWO_EDITS_LENGTH ? 1 : 2;
+        Set<String> queryTrigrams = trigrams(queryTerm);
+        Map<String, Integer> sharedTrigrams = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            Set<String> terms = termsByTrigram.get(trigram);
+            if (terms != null) {
+                terms.forEach(term -> sharedTrigrams.merge(term, 1, Integer::sum));
+            }
+        }
+        // every edit changes at most three trigrams, so terms sharing fewer can not be close enough
+        int minSharedTrigrams = queryTrigrams.size() - 3 * maxEdits;
+        Map<String, Integer> similarTerms = new HashMap<>();
+        sharedTrigrams.forEach((term, shared) -> {
+            if (shared >= minSharedTrigrams && !term.equals(queryTerm)
+                    && Math.abs(term.length() - queryTerm.length()) <= maxEdits) {
+                int distance = distance(queryTerm, term);
+                if (distance <= maxEdits) {
+                    similarTerms.put(term, distance);
+                }
+            }
+        });
+        return similarTerms;
+    }
+
+    private List<ProductSearchHitDTO> top(Map<Long, Double> scores, int limit) {
+        PriorityQueue<ProductSearchHitDTO> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        scores.forEach((serial, score) -> {
+            Document document = documents.get(serial);
+            if (document == null) {
+                return;
+            }
+            top.offer(new ProductSearchHitDTO(document.serial, document.name, document.brand, document.type, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+        List<ProductSearchHitDTO> hits = new ArrayList<>(top);
+        hits.sort(RANKING);
+        return hits;
+    }
+
+    private void index(Document document) {
+        writeLock.lock();
+        try {
+            unindex(document.serial);
+            documents.put(document.serial, document);
+            document.nameTerms.forEach(term -> post(nameTerms, term, document.serial));
+            document.brandTerms.forEach(term -> post(brandTerms, term, document.serial));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void unindex(Long serial) {
+        writeLock.lock();
+        try {
+            Document document = documents.remove(serial);
+            if (document == null) {
+                return;
+            }
+            document.nameTerms.forEach(term -> unpost(nameTerms, term, serial));
+            document.brandTerms.forEach(term -> unpost(brandTerms, term, serial));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void post(Map<String, Set<Long>> terms, String term, Long serial) {
+        terms.computeIfAbsent(term, newTerm -> {
+            trigrams(newTerm).forEach(trigram -> termsByTrigram.computeIfAbsent(trigram, key -> ConcurrentHashMap.newKeySet()).add(newTerm));
+            return ConcurrentHashMap.newKeySet();
+        }).add(serial);
+    }
+
+    private void unpost(Map<String, Set<Long>> terms, String term, Long serial) {
+        Set<Long> serials = terms.get(term);
+        if (serials == null || !serials.remove(serial) || !serials.isEmpty()) {
+            return;
+        }
+        terms.remove(term);
+        if (nameTerms.containsKey(term) || brandTerms.containsKey(term)) {
+            return;
+        }
+        for (String trigram : trigrams(term)) {
+            Set<String> trigramTerms = termsByTrigram.get(trigram);
+            if (trigramTerms != null && trigramTerms.remove(term) && trigramTerms.isEmpty()) {
+                termsByTrigram.remove(trigram);
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    static Set<String> terms(String text) {
+        if (text == null) {
+            return Set.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return TERM_SEPARATOR.splitAsStream(folded)
+                .filter(term -> !term.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static Set<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int index = 0; index + 3 <= padded.length(); index++) {
+            trigrams.add(padded.substring(index, index + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Optimal string alignment distance: insertions, deletions, substitutions and transpositions of
+     * adjacent characters count as one edit each.
+     */
+    static int distance(String source, String target) {
+        int[][] distances = new int[source.length() + 1][target.length() + 1];
+        for (int i = 0; i <= source.length(); i++) {
+            distances[i][0] = i;
+        }
+        for (int j = 0; j <= target.length(); j++) {
+            distances[0][j] = j;
+        }
+        for (int i = 1; i <= source.length(); i++) {
+            for (int j = 1; j <= target.length(); j++) {
+                int cost = source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1;
+                int distance = Math.min(Math.min(distances[i - 1][j] + 1, distances[i][j - 1] + 1), distances[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && source.charAt(i - 1) == target.charAt(j - 2) && source.charAt(i - 2) == target.charAt(j - 1)) {
+                    distance = Math.min(distance, distances[i - 2][j - 2] + 1);
+                }
+                distances[i][j] = distance;
+            }
+        }
+        return distances[source.length()][target.length()];
+    }
+
+    private static final class Document {
+        private final Long serial;
+        private final String name;
+        private final String brand;
+        private final ProductType type;
+        private final Set<String> nameTerms;
+        private final Set<String> brandTerms;
+
+        private Document(Long serial, String name, String brand, ProductType type) {
+            this.serial = serial;
+            this.name = name;
+            this.brand = brand;
+            this.type = type;
+            this.nameTerms = terms(name);
+            this.brandTerms = terms(brand);
+        }
+    }
+}
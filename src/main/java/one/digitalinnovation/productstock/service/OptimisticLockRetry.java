@@ -0,0 +1,59 @@
+package one.digitalinnovation.productstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.productstock.config.StockRetryProperties;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs an action again when it loses an optimistic locking race, waiting a random time between zero
+ * and an exponentially growing backoff before each new attempt, so that writers competing for the
+ * same rows spread out instead of colliding again.
+ */
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class OptimisticLockRetry {
+    public static final String CONFLICTS_METRIC = "product.stock.optimistic.conflicts";
+    public static final String RETRIES_METRIC = "product.stock.optimistic.retries";
+    public static final String EXHAUSTED_METRIC = "product.stock.optimistic.exhausted";
+
+    private final StockRetryProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter(CONFLICTS_METRIC, "operation", operation).increment();
+                if (attempt >= properties.getMaxAttempts()) {
+                    meterRegistry.counter(EXHAUSTED_METRIC, "operation", operation).increment();
+                    throw e;
+                }
+                meterRegistry.counter(RETRIES_METRIC, "operation", operation).increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    public int getMaxAttempts() {
+        return properties.getMaxAttempts();
+    }
+
+    private void backoff(int attempt) {
+        long initialBackoff = properties.getInitialBackoff().toMillis();
+        long maxBackoff = properties.getMaxBackoff().toMillis();
+        long backoff = Math.min(maxBackoff, initialBackoff << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoff + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry " + attempt, e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package one.digitalinnovation.productstock.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import one.digitalinnovation.productstock.cache.ProductVersions;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.dto.ProductImportResultDTO;
+import one.digitalinnovation.productstock.exception.ProductImportException;
+import one.digitalinnovation.productstock.mapper.ProductMapper;
+import one.digitalinnovation.productstock.repository.ProductRepository;
+import one.digitalinnovation.productstock.search.ProductSearchIndex;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports large product catalogs without holding them in memory: the payload is parsed as a stream
+ * and persisted in chunks, each one in its own transaction.
+ */
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ProductImportService {
+    public static final int CHUNK_SIZE = 500;
+
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.emptySchema().withHeader();
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductVersions productVersions;
+    private final ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    public ProductImportResultDTO importJson(InputStream inputStream) throws IOException, ProductImportException {
+        try (MappingIterator<ProductDTO> products = objectMapper.readerFor(ProductDTO.class).readValues(inputStream)) {
+            return importAll(products);
+        }
+    }
+
+    public ProductImportResultDTO importCsv(InputStream inputStream) throws IOException, ProductImportException {
+        try (MappingIterator<ProductDTO> products = CSV_MAPPER.readerFor(ProductDTO.class).with(CSV_SCHEMA).readValues(inputStream)) {
+            return importAll(products);
+        }
+    }
+
+    private ProductImportResultDTO importAll(MappingIterator<ProductDTO> products) throws IOException, ProductImportException {
+        ProductImportResultDTO result = new ProductImportResultDTO();
+        List<ProductDTO> chunk = new ArrayList<>(CHUNK_SIZE);
+        try {
+            while (products.hasNextValue()) {
+                chunk.add(products.nextValue());
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(chunk, result);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new ProductImportException(result.getImported(), e.getOriginalMessage());
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, result);
+        }
+        return result;
+    }
+
+    private void importChunk(List<ProductDTO> chunk, ProductImportResultDTO result) {
+        List<ProductDTO> validProducts = chunk.stream()
+                .filter(productDTO -> validator.validate(productDTO).isEmpty())
+                .collect(Collectors.toList());
+        result.setInvalid(result.getInvalid() + chunk.size() - validProducts.size());
+        if (validProducts.isEmpty()) {
+            return;
+        }
+
+        List<ProductDTO> importedProducts = transactionTemplate.execute(status -> {
+            Set<String> registeredNames = new HashSet<>(productRepository.findExistingNames(validProducts.stream()
+                    .map(ProductDTO::getName)
+                    .collect(Collectors.toSet())));
+            Set<Long> registeredSerials = new HashSet<>(productRepository.findExistingSerials(validProducts.stream()
+                    .map(ProductDTO::getSerial)
+                    .collect(Collectors.toSet())));
+
+            List<ProductDTO> imported = new ArrayList<>();
+            for (ProductDTO productDTO : validProducts) {
+                if (!registeredNames.contains(productDTO.getName()) && !registeredSerials.contains(productDTO.getSerial())) {
+                    registeredNames.add(productDTO.getName());
+                    registeredSerials.add(productDTO.getSerial());
+                    entityManager.persist(productMapper.toModel(productDTO));
+                    productSearchIndex.add(productDTO);
+                    imported.add(productDTO);
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return imported;
+        });
+        importedProducts.forEach(productDTO -> productVersions.changed(productDTO.getName(), productDTO.getSerial()));
+
+        result.setImported(result.getImported() + importedProducts.size());
+        result.setDuplicated(result.getDuplicated() + validProducts.size() - importedProducts.size());
+    }
+}
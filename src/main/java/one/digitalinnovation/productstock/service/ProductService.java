@@ -1,63 +1,210 @@
 package one.digitalinnovation.productstock.service;
 
+import one.digitalinnovation.productstock.cache.ProductCache;
+import one.digitalinnovation.productstock.cache.ProductVersions;
 import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.dto.ProductFilterDTO;
+import one.digitalinnovation.productstock.dto.ProductPageDTO;
+import one.digitalinnovation.productstock.dto.ProductSearchHitDTO;
+import one.digitalinnovation.productstock.dto.StockAdjustmentDTO;
+import one.digitalinnovation.productstock.dto.StockAdjustmentResultDTO;
+import one.digitalinnovation.productstock.datasource.ReadFromReplica;
 import one.digitalinnovation.productstock.entity.Product;
+import one.digitalinnovation.productstock.event.StockEventOutbox;
 import one.digitalinnovation.productstock.exception.ProductAlreadyRegisteredException;
 import one.digitalinnovation.productstock.exception.ProductNotFoundException;
+import one.digitalinnovation.productstock.exception.ProductStockConflictException;
 import one.digitalinnovation.productstock.exception.ProductStockExceededException;
 import one.digitalinnovation.productstock.exception.ProductStockException;
+import one.digitalinnovation.productstock.idempotency.IdempotentRequests;
 import one.digitalinnovation.productstock.mapper.ProductMapper;
+import one.digitalinnovation.productstock.metrics.ProductStockMetrics;
 import one.digitalinnovation.productstock.repository.ProductRepository;
+import one.digitalinnovation.productstock.repository.ProductSpecifications;
+import one.digitalinnovation.productstock.search.ProductSearchIndex;
+import one.digitalinnovation.productstock.stock.StockDeltaCombiner;
+import one.digitalinnovation.productstock.stock.StockEngine;
 import lombok.AllArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class ProductService {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String NAME_UNIQUE_INDEX = "ux_product_name";
+    private static final String PRIMARY_KEY = "pk_product";
+
     private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ProductCache productCache;
+    private final ProductVersions productVersions;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final SingleFlight singleFlight;
+    private final TransactionTemplate transactionTemplate;
+    private final StockEngine stockEngine;
+    private final StockDeltaCombiner stockDeltaCombiner;
+    private final ProductStockMetrics productStockMetrics;
+    private final ProductSearchIndex productSearchIndex;
+    private final StockEventOutbox stockEventOutbox;
     private final ProductMapper productMapper = ProductMapper.INSTANCE;
 
+    @Transactional(rollbackFor = ProductAlreadyRegisteredException.class)
     public ProductDTO createProduct(ProductDTO productDTO) throws ProductAlreadyRegisteredException {
-        verifyIfIsAlreadyRegistered(productDTO.getName());
         Product product = productMapper.toModel(productDTO);
-        Product savedProduct = productRepository.save(product);
-        return productMapper.toDTO(savedProduct);
+        try {
+            entityManager.persist(product);
+            entityManager.flush();
+        } catch (PersistenceException e) {
+            throw alreadyRegistered(product, e);
+        }
+        ProductDTO savedProductDTO = productMapper.toDTO(product);
+        productCache.evict(savedProductDTO);
+        productSearchIndex.add(savedProductDTO);
+        return savedProductDTO;
+    }
+
+    /**
+     * Entity tag of the product with the given name. Read it before the product, so that the tag is
+     * never newer than the data it is sent with.
+     */
+    public String etag(String name) {
+        return productVersions.etag(name);
+    }
+
+    /**
+     * Entity tag of every listing of the catalog, which changes whenever any product does.
+     */
+    public String catalogETag() {
+        return productVersions.catalogETag();
     }
 
+    /**
+     * Concurrent lookups of the same product share one query, which runs in the read-only transaction
+     * of the repository so that the callers waiting for it do not hold a connection.
+     */
     public ProductDTO findByName(String name) throws ProductNotFoundException {
-        Product foundProduct = productRepository.findByName(name)
+        return productCache.get(ProductCache.BY_NAME, name,
+                        () -> singleFlight.execute("findByName", List.of(name, productVersions.etag(name)),
+                                () -> productRepository.findDTOByName(name).map(stockEngine::withCurrentQuantity)))
                 .orElseThrow(() -> new ProductNotFoundException(name));
-        return productMapper.toDTO(foundProduct);
     }
 
     public ProductDTO findById(Long serial) throws ProductNotFoundException {
-        Product foundProduct = productRepository.findById(serial)
+        return productCache.get(ProductCache.BY_SERIAL, serial,
+                        () -> singleFlight.execute("findById", List.of(serial, productVersions.version(serial)),
+                                () -> productRepository.findDTOBySerial(serial).map(stockEngine::withCurrentQuantity)))
                 .orElseThrow(() -> new ProductNotFoundException(serial));
-        return productMapper.toDTO(foundProduct);
     }
 
+    @ReadFromReplica
+    @Transactional(readOnly = true)
     public List<ProductDTO> listAll(){
-        return productRepository.findAll()
+        return productRepository.findAllDTOs()
+                .stream()
+                .map(stockEngine::withCurrentQuantity)
+                .collect(Collectors.toList());
+    }
+
+    @ReadFromReplica
+    @Transactional(readOnly = true)
+    public ProductPageDTO listPage(Long cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<ProductDTO> products = cursor == null
+                ? productRepository.findDTOsOrderedBySerial(pageable)
+                : productRepository.findDTOsBySerialGreaterThan(cursor, pageable);
+
+        return toPage(products, pageSize);
+    }
+
+    @ReadFromReplica
+    @Transactional(readOnly = true)
+    public ProductPageDTO search(ProductFilterDTO filter, Long cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<ProductDTO> products = productRepository.findBy(ProductSpecifications.matching(filter, cursor),
+                        query -> query.sortBy(Sort.by("serial")).limit(pageSize + 1).all())
                 .stream()
                 .map(productMapper::toDTO)
                 .collect(Collectors.toList());
+        return toPage(products, pageSize);
+    }
+
+    public List<ProductSearchHitDTO> suggest(String query, int limit) {
+        return productSearchIndex.search(query, limit);
+    }
+
+    private ProductPageDTO toPage(List<ProductDTO> products, int pageSize) {
+        List<ProductDTO> content = products.size() > pageSize ? products.subList(0, pageSize) : products;
+        content.forEach(stockEngine::withCurrentQuantity);
+        Long nextCursor = products.size() > pageSize ? content.get(pageSize - 1).getSerial() : null;
+        return new ProductPageDTO(content, nextCursor);
+    }
+
+    @ReadFromReplica
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<ProductDTO> consumer) {
+        try (Stream<Product> products = productRepository.streamAllOrderedBySerial()) {
+            products.forEach(product -> {
+                consumer.accept(stockEngine.withCurrentQuantity(productMapper.toDTO(product)));
+                entityManager.detach(product);
+            });
+        }
     }
 
     public void deleteBySerial(Long serial) throws ProductNotFoundException {
-        verifyIfExists(serial);
+        Product productToDelete = verifyIfExists(serial);
         productRepository.deleteById(serial);
+        stockEngine.evict(serial);
+        productSearchIndex.remove(serial);
+        productCache.remove(productToDelete.getName(), serial);
     }
 
-    private void verifyIfIsAlreadyRegistered(String name) throws ProductAlreadyRegisteredException {
-        Optional<Product> optSavedProduct = productRepository.findByName(name);
-        if (optSavedProduct.isPresent()) {
-            throw new ProductAlreadyRegisteredException(name);
+    private ProductAlreadyRegisteredException alreadyRegistered(Product product, PersistenceException e) {
+        String violatedConstraint = violatedConstraint(e);
+        if (violatedConstraint.contains(NAME_UNIQUE_INDEX)) {
+            return new ProductAlreadyRegisteredException(product.getName());
         }
+        if (violatedConstraint.contains(PRIMARY_KEY) || violatedConstraint.contains("primary key")) {
+            return new ProductAlreadyRegisteredException(product.getSerial());
+        }
+        throw e;
+    }
+
+    private String violatedConstraint(PersistenceException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                ConstraintViolationException violation = (ConstraintViolationException) cause;
+                return Optional.ofNullable(violation.getConstraintName())
+                        .orElseGet(() -> violation.getSQLException().getMessage())
+                        .toLowerCase();
+            }
+        }
+        return "";
     }
 
     private Product verifyIfExists(Long serial) throws ProductNotFoundException {
@@ -65,24 +212,179 @@ public class ProductService {
                 .orElseThrow(() -> new ProductNotFoundException(serial));
     }
 
+    /**
+     * With write combining enabled, the movement is queued and the caller waits for the batch it is
+     * written in without holding a connection; otherwise it runs in a transaction of its own.
+     */
     public ProductDTO increment(Long serial, int quantityToIncrement) throws ProductNotFoundException, ProductStockExceededException {
-        Product productToIncrementStock = verifyIfExists(serial);
-        int quantityAfterIncrement = quantityToIncrement + productToIncrementStock.getQuantity();
-        if (quantityAfterIncrement <= productToIncrementStock.getMax()) {
-            productToIncrementStock.setQuantity(productToIncrementStock.getQuantity() + quantityToIncrement);
-            Product incrementedProductStock = productRepository.save(productToIncrementStock);
-            return productMapper.toDTO(incrementedProductStock);
+        if (!stockEngine.isEnabled() && stockDeltaCombiner.isEnabled()) {
+            return awaitCombined(stockDeltaCombiner.submit(serial, quantityToIncrement), ProductStockExceededException.class);
         }
-        throw new ProductStockExceededException(serial, quantityToIncrement);
+        return inTransaction(() -> {
+            if (stockEngine.isEnabled()) {
+                ProductDTO incrementedProductDTO = stockEngine.increment(serial, quantityToIncrement);
+                IdempotentRequests.movementCommitted();
+                productCache.evict(incrementedProductDTO);
+                productStockMetrics.recordMovement(incrementedProductDTO.getType(), quantityToIncrement);
+                stockEventOutbox.record(incrementedProductDTO, quantityToIncrement);
+                return incrementedProductDTO;
+            }
+            int updatedRows = productRepository.incrementQuantity(serial, quantityToIncrement);
+            if (updatedRows == 0) {
+                verifyIfExists(serial);
+                throw new ProductStockExceededException(serial, quantityToIncrement);
+            }
+            IdempotentRequests.movementCommittedOnCommit();
+            ProductDTO incrementedProductDTO = productMapper.toDTO(verifyIfExists(serial));
+            productCache.evict(incrementedProductDTO);
+            productStockMetrics.recordMovement(incrementedProductDTO.getType(), quantityToIncrement);
+            stockEventOutbox.record(incrementedProductDTO, quantityToIncrement);
+            return incrementedProductDTO;
+        });
     }
 
     public ProductDTO decrement(Long serial, int quantityToDecrement) throws ProductNotFoundException, ProductStockException {
-        Product productToDecrementStock = verifyIfExists(serial);
-        if (quantityToDecrement <= productToDecrementStock.getQuantity()) {
-            productToDecrementStock.setQuantity(productToDecrementStock.getQuantity() - quantityToDecrement);
-            Product decrementedProductStock = productRepository.save(productToDecrementStock);
-            return productMapper.toDTO(decrementedProductStock);
+        if (!stockEngine.isEnabled() && stockDeltaCombiner.isEnabled()) {
+            return awaitCombined(stockDeltaCombiner.submit(serial, -quantityToDecrement), ProductStockException.class);
+        }
+        return inTransaction(() -> {
+            if (stockEngine.isEnabled()) {
+                ProductDTO decrementedProductDTO = stockEngine.decrement(serial, quantityToDecrement);
+                IdempotentRequests.movementCommitted();
+                productCache.evict(decrementedProductDTO);
+                productStockMetrics.recordMovement(decrementedProductDTO.getType(), -quantityToDecrement);
+                stockEventOutbox.record(decrementedProductDTO, -quantityToDecrement);
+                return decrementedProductDTO;
+            }
+            int updatedRows = productRepository.decrementQuantity(serial, quantityToDecrement);
+            if (updatedRows == 0) {
+                verifyIfExists(serial);
+                throw new ProductStockException(serial, quantityToDecrement);
+            }
+            IdempotentRequests.movementCommittedOnCommit();
+            ProductDTO decrementedProductDTO = productMapper.toDTO(verifyIfExists(serial));
+            productCache.evict(decrementedProductDTO);
+            productStockMetrics.recordMovement(decrementedProductDTO.getType(), -quantityToDecrement);
+            stockEventOutbox.record(decrementedProductDTO, -quantityToDecrement);
+            return decrementedProductDTO;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Exception> ProductDTO inTransaction(StockMovement<E> movement) throws ProductNotFoundException, E {
+        try {
+            return transactionTemplate.execute(status -> {
+                try {
+                    return movement.apply();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new StockMovementRejected(e);
+                }
+            });
+        } catch (StockMovementRejected e) {
+            if (e.getCause() instanceof ProductNotFoundException notFound) {
+                throw notFound;
+            }
+            throw (E) e.getCause();
+        }
+    }
+
+    private static <E extends Exception> ProductDTO awaitCombined(CompletableFuture<ProductDTO> combined, Class<E> rejection)
+            throws ProductNotFoundException, E {
+        try {
+            return combined.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ProductNotFoundException notFound) {
+                throw notFound;
+            }
+            if (rejection.isInstance(e.getCause())) {
+                throw rejection.cast(e.getCause());
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    public List<StockAdjustmentResultDTO> adjustStock(List<StockAdjustmentDTO> adjustments) throws ProductStockConflictException {
+        if (stockEngine.isEnabled()) {
+            return adjustments.stream()
+                    .map(this::adjustInStockEngine)
+                    .collect(Collectors.toList());
+        }
+        try {
+            return optimisticLockRetry.execute("adjustStock",
+                    () -> transactionTemplate.execute(status -> applyAdjustments(adjustments)));
+        } catch (OptimisticLockingFailureException e) {
+            throw new ProductStockConflictException(optimisticLockRetry.getMaxAttempts());
+        }
+    }
+
+    private StockAdjustmentResultDTO adjustInStockEngine(StockAdjustmentDTO adjustment) {
+        try {
+            ProductDTO adjustedProductDTO = adjustment.getDelta() >= 0
+                    ? stockEngine.increment(adjustment.getSerial(), adjustment.getDelta())
+                    : stockEngine.decrement(adjustment.getSerial(), -adjustment.getDelta());
+            productCache.evict(adjustedProductDTO);
+            productStockMetrics.recordMovement(adjustedProductDTO.getType(), adjustment.getDelta());
+            stockEventOutbox.record(adjustedProductDTO, adjustment.getDelta());
+            return StockAdjustmentResultDTO.success(adjustment, adjustedProductDTO.getQuantity());
+        } catch (ProductNotFoundException | ProductStockExceededException | ProductStockException e) {
+            return StockAdjustmentResultDTO.failure(adjustment, e);
+        }
+    }
+
+    private List<StockAdjustmentResultDTO> applyAdjustments(List<StockAdjustmentDTO> adjustments) {
+        Set<Long> serials = adjustments.stream()
+                .map(StockAdjustmentDTO::getSerial)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Product> productsBySerial = productRepository.findAllById(serials)
+                .stream()
+                .collect(Collectors.toMap(Product::getSerial, Function.identity()));
+
+        List<StockAdjustmentResultDTO> results = new ArrayList<>(adjustments.size());
+        for (StockAdjustmentDTO adjustment : adjustments) {
+            results.add(adjust(productsBySerial, adjustment));
+        }
+        productsBySerial.values().forEach(product -> productCache.evict(productMapper.toDTO(product)));
+        return results;
+    }
+
+    private StockAdjustmentResultDTO adjust(Map<Long, Product> productsBySerial, StockAdjustmentDTO adjustment) {
+        try {
+            Product productToAdjust = Optional.ofNullable(productsBySerial.get(adjustment.getSerial()))
+                    .orElseThrow(() -> new ProductNotFoundException(adjustment.getSerial()));
+            productToAdjust.setQuantity(quantityAfterAdjustment(productToAdjust, adjustment.getDelta()));
+            productStockMetrics.recordMovement(productToAdjust.getType(), adjustment.getDelta());
+            stockEventOutbox.record(productMapper.toDTO(productToAdjust), adjustment.getDelta());
+            return StockAdjustmentResultDTO.success(adjustment, productToAdjust.getQuantity());
+        } catch (ProductNotFoundException | ProductStockExceededException | ProductStockException e) {
+            return StockAdjustmentResultDTO.failure(adjustment, e);
+        }
+    }
+
+    private int quantityAfterAdjustment(Product product, int delta) throws ProductStockExceededException, ProductStockException {
+        int quantityAfterAdjustment = product.getQuantity() + delta;
+        if (quantityAfterAdjustment > product.getMax()) {
+            throw new ProductStockExceededException(product.getSerial(), delta);
+        }
+        if (quantityAfterAdjustment < 0) {
+            throw new ProductStockException(product.getSerial(), -delta);
+        }
+        return quantityAfterAdjustment;
+    }
+
+    @FunctionalInterface
+    private interface StockMovement<E extends Exception> {
+        ProductDTO apply() throws ProductNotFoundException, E;
+    }
+
+    private static final class StockMovementRejected extends RuntimeException {
+        private StockMovementRejected(Exception rejection) {
+            super(rejection);
         }
-        throw new ProductStockException(serial, quantityToDecrement);
     }
 }
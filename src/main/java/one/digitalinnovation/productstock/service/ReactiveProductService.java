@@ -0,0 +1,97 @@
+package one.digitalinnovation.productstock.service;
+
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.dto.ProductPageDTO;
+import one.digitalinnovation.productstock.entity.Product;
+import one.digitalinnovation.productstock.exception.ProductAlreadyRegisteredException;
+import one.digitalinnovation.productstock.exception.ProductNotFoundException;
+import one.digitalinnovation.productstock.exception.ProductStockExceededException;
+import one.digitalinnovation.productstock.exception.ProductStockException;
+import one.digitalinnovation.productstock.mapper.ProductMapper;
+import one.digitalinnovation.productstock.repository.ReactiveProductRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link ProductService}, used when the application runs with the
+ * {@code reactive} profile.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ReactiveProductService {
+    private static final String NAME_UNIQUE_INDEX = "ux_product_name";
+
+    private final ReactiveProductRepository productRepository;
+    private final ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    public Mono<ProductDTO> createProduct(ProductDTO productDTO) {
+        Product product = productMapper.toModel(productDTO);
+        return productRepository.insert(product)
+                .thenReturn(productDTO)
+                .onErrorMap(DataIntegrityViolationException.class, e -> alreadyRegistered(product, e));
+    }
+
+    public Mono<ProductDTO> findByName(String name) {
+        return productRepository.findByName(name)
+                .map(productMapper::toDTO)
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException(name)));
+    }
+
+    public Flux<ProductDTO> listAll() {
+        return productRepository.findAllOrderedBySerial()
+                .map(productMapper::toDTO);
+    }
+
+    public Mono<ProductPageDTO> listPage(Long cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, ProductService.MAX_PAGE_SIZE));
+        return productRepository.findBySerialGreaterThanOrderBySerial(cursor == null ? Long.MIN_VALUE : cursor, pageSize + 1)
+                .map(productMapper::toDTO)
+                .collectList()
+                .map(products -> {
+                    List<ProductDTO> content = products.size() > pageSize ? products.subList(0, pageSize) : products;
+                    Long nextCursor = products.size() > pageSize ? content.get(pageSize - 1).getSerial() : null;
+                    return new ProductPageDTO(content, nextCursor);
+                });
+    }
+
+    public Mono<Void> deleteBySerial(Long serial) {
+        return productRepository.deleteById(serial)
+                .flatMap(deletedRows -> deletedRows == 0 ? Mono.error(new ProductNotFoundException(serial)) : Mono.empty());
+    }
+
+    public Mono<ProductDTO> increment(Long serial, int quantityToIncrement) {
+        return productRepository.incrementQuantity(serial, quantityToIncrement)
+                .flatMap(updatedRows -> updatedRows == 0
+                        ? verifyIfExists(serial).then(Mono.error(new ProductStockExceededException(serial, quantityToIncrement)))
+                        : verifyIfExists(serial))
+                .map(productMapper::toDTO);
+    }
+
+    public Mono<ProductDTO> decrement(Long serial, int quantityToDecrement) {
+        return productRepository.decrementQuantity(serial, quantityToDecrement)
+                .flatMap(updatedRows -> updatedRows == 0
+                        ? verifyIfExists(serial).then(Mono.error(new ProductStockException(serial, quantityToDecrement)))
+                        : verifyIfExists(serial))
+                .map(productMapper::toDTO);
+    }
+
+    private Mono<Product> verifyIfExists(Long serial) {
+        return productRepository.findById(serial)
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException(serial)));
+    }
+
+    private ProductAlreadyRegisteredException alreadyRegistered(Product product, DataIntegrityViolationException e) {
+        String message = String.valueOf(e.getMessage()).toLowerCase();
+        return message.contains(NAME_UNIQUE_INDEX)
+                ? new ProductAlreadyRegisteredException(product.getName())
+                : new ProductAlreadyRegisteredException(product.getSerial());
+    }
+}
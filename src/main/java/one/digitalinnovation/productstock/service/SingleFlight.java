@@ -0,0 +1,67 @@
+package one.digitalinnovation.productstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical calls: while a call for an operation and key is in flight, callers
+ * asking for the same operation and key wait for it and share its result, or its exception, instead
+ * of running their own. Nothing is kept once the call completes, so the next caller runs it again.
+ * <p>
+ * A caller arriving after a write has committed must not join a call started before it, so keys of
+ * reads should carry the version of the data they read.
+ */
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class SingleFlight {
+    public static final String EXECUTED_METRIC = "product.read.single.flight.executed";
+    public static final String COALESCED_METRIC = "product.read.single.flight.coalesced";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<List<Object>, CompletableFuture<Object>> calls = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Object key, Supplier<T> call) {
+        List<Object> callKey = List.of(operation, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = calls.putIfAbsent(callKey, flight);
+        if (inFlight != null) {
+            meterRegistry.counter(COALESCED_METRIC, "operation", operation).increment();
+            return (T) join(inFlight);
+        }
+        meterRegistry.counter(EXECUTED_METRIC, "operation", operation).increment();
+        try {
+            T result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(callKey, flight);
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
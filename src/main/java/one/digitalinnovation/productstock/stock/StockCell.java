@@ -0,0 +1,93 @@
+package one.digitalinnovation.productstock.stock;
+
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.exception.ProductStockExceededException;
+import one.digitalinnovation.productstock.exception.ProductStockException;
+
+/**
+ * In-memory stock counter of one product. Adjustments are checked against the bounds, journaled and
+ * only then published, all while holding the lock of the stripe that owns the cell, so a journal
+ * failure never takes back a quantity that another adjustment was checked against. The quantity can
+ * be read without the lock.
+ */
+final class StockCell {
+    private final ProductDTO product;
+    private volatile int quantity;
+    private int pendingDelta;
+
+    StockCell(ProductDTO product) {
+        this.product = product;
+        this.quantity = product.getQuantity();
+    }
+
+    Long getSerial() {
+        return product.getSerial();
+    }
+
+    int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Must be called while holding the lock of the stripe that owns this cell.
+     *
+     * @return the quantity after the increment, which is not applied yet
+     */
+    int incremented(int quantityToIncrement) throws ProductStockExceededException {
+        long next = (long) quantity + quantityToIncrement;
+        if (next > product.getMax()) {
+            throw new ProductStockExceededException(product.getSerial(), quantityToIncrement);
+        }
+        return (int) next;
+    }
+
+    /**
+     * Must be called while holding the lock of the stripe that owns this cell.
+     *
+     * @return the quantity after the decrement, which is not applied yet
+     */
+    int decremented(int quantityToDecrement) throws ProductStockException {
+        long next = (long) quantity - quantityToDecrement;
+        if (next < 0) {
+            throw new ProductStockException(product.getSerial(), quantityToDecrement);
+        }
+        return (int) next;
+    }
+
+    /**
+     * Publishes a checked and journaled adjustment. Must be called while holding the lock of the
+     * stripe that owns this cell.
+     */
+    void apply(int delta) {
+        quantity += delta;
+        pendingDelta += delta;
+    }
+
+    /**
+     * Must be called while holding the lock of the stripe that owns this cell.
+     */
+    void addPending(int delta) {
+        pendingDelta += delta;
+    }
+
+    /**
+     * Must be called while holding the lock of the stripe that owns this cell.
+     */
+    int drainPending() {
+        int delta = pendingDelta;
+        pendingDelta = 0;
+        return delta;
+    }
+
+    ProductDTO toDTO(int currentQuantity) {
+        return ProductDTO.builder()
+                .serial(product.getSerial())
+                .name(product.getName())
+                .brand(product.getBrand())
+                .quantity(currentQuantity)
+                .max(product.getMax())
+                .purchasePrice(product.getPurchasePrice())
+                .type(product.getType())
+                .build();
+    }
+}
@@ -0,0 +1,217 @@
+package one.digitalinnovation.productstock.stock;
+
+import one.digitalinnovation.productstock.cache.ProductCache;
+import one.digitalinnovation.productstock.config.StockCombiningProperties;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.entity.Product;
+import one.digitalinnovation.productstock.event.StockEventOutbox;
+import one.digitalinnovation.productstock.exception.ProductNotFoundException;
+import one.digitalinnovation.productstock.exception.ProductStockExceededException;
+import one.digitalinnovation.productstock.exception.ProductStockException;
+import one.digitalinnovation.productstock.mapper.ProductMapper;
+import one.digitalinnovation.productstock.metrics.ProductStockMetrics;
+import one.digitalinnovation.productstock.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Optional write combining for hot serials. When {@code product.stock.combining.enabled} is set, the
+ * increments and decrements of a serial are queued for {@code product.stock.combining.window} and
+ * applied together: the product row is locked once, every delta is checked against the stock bounds
+ * in arrival order, and the sum of the accepted ones is written with a single UPDATE. Each caller
+ * gets the quantity left right after its own delta, or its own rejection when that delta would
+ * cross zero or the max.
+ * <p>
+ * A serial has at most one batch being written at a time; deltas arriving meanwhile form the next
+ * batch, written as soon as the current one commits. Callers are completed only after the commit.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class StockDeltaCombiner {
+    private final StockCombiningProperties properties;
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductStockMetrics productStockMetrics;
+    private final StockEventOutbox stockEventOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    private final Map<Long, List<PendingDelta>> pendingBySerial = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService writers;
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-delta-combine");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("stock-delta-write-", 0).factory());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler.shutdown();
+        scheduler.awaitTermination(properties.getWindow().toMillis() + 10_000, TimeUnit.MILLISECONDS);
+        writers.close();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Queues a stock movement of the given serial.
+     *
+     * @return completed with the product as left by this delta, or with {@link ProductNotFoundException},
+     * {@link ProductStockExceededException} or {@link ProductStockException} when it is rejected
+     */
+    public CompletableFuture<ProductDTO> submit(Long serial, int delta) {
+        PendingDelta pendingDelta = new PendingDelta(delta);
+        pendingBySerial.compute(serial, (key, pending) -> {
+            if (pending == null) {
+                pending = new ArrayList<>();
+                scheduler.schedule(() -> writers.execute(() -> write(key)), properties.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+            }
+            pending.add(pendingDelta);
+            return pending;
+        });
+        return pendingDelta.result;
+    }
+
+    private void write(Long serial) {
+        for (List<PendingDelta> batch = nextBatch(serial); !batch.isEmpty(); batch = nextBatch(serial)) {
+            write(serial, batch);
+        }
+    }
+
+    /**
+     * Writes the batch and completes its callers. A failure after the commit, in an after-commit callback,
+     * still completes them with their results, so they do not take committed movements for failed ones.
+     */
+    private void write(Long serial, List<PendingDelta> batch) {
+        List<Runnable> completions = new ArrayList<>(batch.size());
+        AtomicBoolean committed = new AtomicBoolean();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                completions.addAll(apply(serial, batch));
+                flagOnCommit(committed);
+            });
+        } catch (RuntimeException e) {
+            if (!committed.get()) {
+                log.warn("Could not write {} combined stock movements of serial {}", batch.size(), serial, e);
+                batch.forEach(pendingDelta -> pendingDelta.result.completeExceptionally(e));
+                return;
+            }
+            log.warn("Combined stock movements of serial {} were committed, but an after-commit callback failed", serial, e);
+        }
+        completions.forEach(Runnable::run);
+    }
+
+    private static void flagOnCommit(AtomicBoolean committed) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCommit() {
+                committed.set(true);
+            }
+        });
+    }
+
+    /**
+     * Takes up to {@code product.stock.combining.max-batch-size} pending deltas of the serial. Once
+     * there are none left the serial is released, so the next delta schedules a new batch.
+     */
+    private List<PendingDelta> nextBatch(Long serial) {
+        List<PendingDelta> batch = new ArrayList<>();
+        pendingBySerial.computeIfPresent(serial, (key, pending) -> {
+            if (pending.isEmpty()) {
+                return null;
+            }
+            List<PendingDelta> head = pending.subList(0, Math.min(pending.size(), properties.getMaxBatchSize()));
+            batch.addAll(head);
+            head.clear();
+            return pending;
+        });
+        return batch;
+    }
+
+    private List<Runnable> apply(Long serial, List<PendingDelta> batch) {
+        List<Runnable> completions = new ArrayList<>(batch.size());
+        Optional<Product> lockedProduct = productRepository.findForUpdate(serial);
+        if (lockedProduct.isEmpty()) {
+            ProductNotFoundException notFound = new ProductNotFoundException(serial);
+            batch.forEach(pendingDelta -> completions.add(() -> pendingDelta.result.completeExceptionally(notFound)));
+            return completions;
+        }
+        Product product = lockedProduct.get();
+        int quantity = product.getQuantity();
+        for (PendingDelta pendingDelta : batch) {
+            int delta = pendingDelta.delta;
+            int quantityAfterDelta = quantity + delta;
+            if (quantityAfterDelta > product.getMax()) {
+                Exception rejection = new ProductStockExceededException(serial, delta);
+                completions.add(() -> pendingDelta.result.completeExceptionally(rejection));
+            } else if (quantityAfterDelta < 0) {
+                Exception rejection = new ProductStockException(serial, -delta);
+                completions.add(() -> pendingDelta.result.completeExceptionally(rejection));
+            } else {
+                quantity = quantityAfterDelta;
+                ProductDTO movedProductDTO = productMapper.toDTO(product);
+                movedProductDTO.setQuantity(quantity);
+                productStockMetrics.recordMovement(product.getType(), delta);
+                stockEventOutbox.record(movedProductDTO, delta);
+                completions.add(() -> pendingDelta.result.complete(movedProductDTO));
+            }
+        }
+        if (quantity != product.getQuantity()) {
+            product.setQuantity(quantity);
+            productCache.evict(productMapper.toDTO(product));
+        }
+        return completions;
+    }
+
+    private static final class PendingDelta {
+        private final int delta;
+        private final CompletableFuture<ProductDTO> result = new CompletableFuture<>();
+
+        private PendingDelta(int delta) {
+            this.delta = delta;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package one.digitalinnovation.productstock.stock;
+
+import one.digitalinnovation.productstock.config.StockEngineProperties;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.entity.StockJournalCheckpoint;
+import one.digitalinnovation.productstock.exception.ProductNotFoundException;
+import one.digitalinnovation.productstock.exception.ProductStockExceededException;
+import one.digitalinnovation.productstock.exception.ProductStockException;
+import one.digitalinnovation.productstock.mapper.ProductMapper;
+import one.digitalinnovation.productstock.repository.ProductRepository;
+import one.digitalinnovation.productstock.repository.StockJournalCheckpointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional stock engine for hot serials. When {@code product.stock.engine.enabled} is set, increments
+ * and decrements are applied to in-memory counters striped by serial and journaled to local files
+ * before they are acknowledged; the accumulated deltas are written to the product table in periodic
+ * batches. On startup the journal entries newer than the stripe checkpoints are replayed, whether the
+ * engine is enabled or not, so that no acknowledged adjustment is lost by a crash.
+ * <p>
+ * The engine owns the stock of the products it has loaded, so it only fits a single application
+ * instance writing to the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class StockEngine {
+    private final StockEngineProperties properties;
+    private final ProductRepository productRepository;
+    private final StockJournalCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    private Stripe[] stripes;
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void start() throws IOException {
+        replay();
+        if (!properties.isEnabled()) {
+            return;
+        }
+        stripes = new Stripe[properties.getStripes()];
+        for (int index = 0; index < stripes.length; index++) {
+            long checkpoint = checkpoint(index);
+            stripes[index] = new Stripe(index, checkpoint,
+                    new StockJournal(properties.getJournalDirectory(), index, checkpoint, properties.isFsync()));
+        }
+        long flushInterval = properties.getFlushInterval().toMillis();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-engine-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(properties.getFlushInterval().toMillis() + 10_000, TimeUnit.MILLISECONDS);
+        flush();
+        for (Stripe stripe : stripes) {
+            stripe.journal.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public ProductDTO increment(Long serial, int quantityToIncrement) throws ProductNotFoundException, ProductStockExceededException {
+        StockCell cell = cell(serial);
+        Stripe stripe = stripe(serial);
+        stripe.lock.lock();
+        try {
+            int quantity = cell.incremented(quantityToIncrement);
+            record(stripe, cell, quantityToIncrement);
+            return cell.toDTO(quantity);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public ProductDTO decrement(Long serial, int quantityToDecrement) throws ProductNotFoundException, ProductStockException {
+        StockCell cell = cell(serial);
+        Stripe stripe = stripe(serial);
+        stripe.lock.lock();
+        try {
+            int quantity = cell.decremented(quantityToDecrement);
+            record(stripe, cell, -quantityToDecrement);
+            return cell.toDTO(quantity);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * The product with the quantity held by the engine, which includes the adjustments not flushed to
+     * the product table yet, if the engine has loaded it. Reads of the product table must go through
+     * this, or they would miss the acknowledged adjustments until the next flush.
+     */
+    public ProductDTO withCurrentQuantity(ProductDTO productDTO) {
+        if (!properties.isEnabled()) {
+            return productDTO;
+        }
+        StockCell cell = stripe(productDTO.getSerial()).cells.get(productDTO.getSerial());
+        if (cell != null) {
+            productDTO.setQuantity(cell.getQuantity());
+        }
+        return productDTO;
+    }
+
+    /**
+     * Forgets the counter of a deleted product. Deltas not flushed yet are dropped with it.
+     */
+    public void evict(Long serial) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Stripe stripe = stripe(serial);
+        stripe.lock.lock();
+        try {
+            stripe.cells.remove(serial);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the deltas accumulated by every stripe to the product table, moving the stripe
+     * checkpoints forward in the same transaction.
+     */
+    public void flush() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (Stripe stripe : stripes) {
+            flush(stripe);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not flush stock deltas, they will be retried on the next flush", e);
+        }
+    }
+
+    private void flush(Stripe stripe) throws IOException {
+        Map<StockCell, Integer> deltas = new HashMap<>();
+        long sequence;
+        stripe.lock.lock();
+        try {
+            sequence = stripe.journal.getSequence();
+            if (sequence == stripe.checkpoint) {
+                return;
+            }
+            stripe.journal.rotate();
+            for (StockCell cell : stripe.cells.values()) {
+                int delta = cell.drainPending();
+                if (delta != 0) {
+                    deltas.put(cell, delta);
+                }
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                deltas.forEach((cell, delta) -> productRepository.addQuantity(cell.getSerial(), delta));
+                checkpointRepository.save(new StockJournalCheckpoint(stripe.index, sequence));
+            });
+        } catch (RuntimeException e) {
+            stripe.lock.lock();
+            try {
+                deltas.forEach(StockCell::addPending);
+            } finally {
+                stripe.lock.unlock();
+            }
+            throw e;
+        }
+        stripe.checkpoint = sequence;
+        stripe.journal.deleteClosedSegments();
+    }
+
+    private void replay() throws IOException {
+        Map<Integer, List<Path>> segmentsByStripe = StockJournal.findSegments(properties.getJournalDirectory());
+        for (Map.Entry<Integer, List<Path>> stripeSegments : segmentsByStripe.entrySet()) {
+            int index = stripeSegments.getKey();
+            long checkpoint = checkpoint(index);
+            Map<Long, Integer> deltas = new HashMap<>();
+            long[] lastSequence = {checkpoint};
+            for (Path segment : stripeSegments.getValue()) {
+                StockJournal.read(segment, (sequence, serial, delta) -> {
+                    if (sequence > checkpoint) {
+                        deltas.merge(serial, delta, Integer::sum);
+                        lastSequence[0] = Math.max(lastSequence[0], sequence);
+                    }
+                });
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                deltas.forEach(productRepository::addQuantity);
+                checkpointRepository.save(new StockJournalCheckpoint(index, lastSequence[0]));
+            });
+            for (Path segment : stripeSegments.getValue()) {
+                Files.deleteIfExists(segment);
+            }
+            if (!deltas.isEmpty()) {
+                log.info("Replayed stock journal of stripe {} up to sequence {} for {} products", index, lastSequence[0], deltas.size());
+            }
+        }
+    }
+
+    private long checkpoint(int index) {
+        return checkpointRepository.findById(index)
+                .map(StockJournalCheckpoint::getSequence)
+                .orElse(0L);
+    }
+
+    private StockCell cell(Long serial) throws ProductNotFoundException {
+        if (serial == null) {
+            throw new ProductNotFoundException(serial);
+        }
+        Stripe stripe = stripe(serial);
+        StockCell cell = stripe.cells.get(serial);
+        if (cell != null) {
+            return cell;
+        }
+        stripe.lock.lock();
+        try {
+            cell = stripe.cells.get(serial);
+            if (cell == null) {
+                ProductDTO productDTO = productRepository.findById(serial)
+                        .map(productMapper::toDTO)
+                        .orElseThrow(() -> new ProductNotFoundException(serial));
+                cell = new StockCell(productDTO);
+                stripe.cells.put(serial, cell);
+            }
+            return cell;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Journals a checked adjustment and then publishes it. Must be called while holding the lock of the stripe.
+     */
+    private void record(Stripe stripe, StockCell cell, int delta) {
+        try {
+            stripe.journal.append(cell.getSerial(), delta);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal the stock adjustment of product " + cell.getSerial(), e);
+        }
+        cell.apply(delta);
+    }
+
+    private Stripe stripe(Long serial) {
+        int hash = Long.hashCode(serial);
+        return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+    }
+
+    private static final class Stripe {
+        private final int index;
+        private final StockJournal journal;
+        private final Map<Long, StockCell> cells = new ConcurrentHashMap<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private long checkpoint;
+
+        private Stripe(int index, long checkpoint, StockJournal journal) {
+            this.index = index;
+            this.checkpoint = checkpoint;
+            this.journal = journal;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package one.digitalinnovation.productstock.stock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the stock deltas of one stripe. Every record carries a sequence number, so that
+ * a replay can skip what the checkpoint says is already in the database, and a checksum, so that a
+ * record torn by a crash ends the replay of its segment instead of corrupting the stock.
+ * <p>
+ * The journal is split in segments: {@link #rotate()} starts a new one before a flush, and the closed
+ * segments are deleted once the flush is committed. Not thread-safe; callers hold the stripe lock.
+ */
+final class StockJournal implements Closeable {
+    static final int RECORD_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("stripe-(\\d+)-(\\d+)\\.journal");
+
+    private final Path directory;
+    private final int stripe;
+    private final boolean fsync;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32 checksum = new CRC32();
+    private final List<Path> closedSegments = new ArrayList<>();
+    private Path segmentPath;
+    private FileChannel segment;
+    private long sequence;
+
+    StockJournal(Path directory, int stripe, long sequence, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.stripe = stripe;
+        this.sequence = sequence;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+        this.segmentPath = segmentPath(sequence + 1);
+        this.segment = open(segmentPath);
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    long append(long serial, int delta) throws IOException {
+        long nextSequence = sequence + 1;
+        record.clear();
+        record.putLong(nextSequence).putLong(serial).putInt(delta);
+        checksum.reset();
+        checksum.update(record.array(), 0, record.position());
+        record.putInt((int) checksum.getValue());
+        record.flip();
+
+        long position = segment.position();
+        try {
+            while (record.hasRemaining()) {
+                segment.write(record);
+            }
+            if (fsync) {
+                segment.force(false);
+            }
+        } catch (IOException e) {
+            segment.truncate(position);
+            throw e;
+        }
+        sequence = nextSequence;
+        return nextSequence;
+    }
+
+    /**
+     * Closes the current segment and starts a new one, unless nothing was appended since the last
+     * rotation: the next segment would then be the current one, which must not be deleted.
+     */
+    void rotate() throws IOException {
+        Path nextSegmentPath = segmentPath(sequence + 1);
+        if (nextSegmentPath.equals(segmentPath)) {
+            return;
+        }
+        FileChannel nextSegment = open(nextSegmentPath);
+        segment.force(false);
+        segment.close();
+        closedSegments.add(segmentPath);
+        segmentPath = nextSegmentPath;
+        segment = nextSegment;
+    }
+
+    void deleteClosedSegments() throws IOException {
+        for (Path closedSegment : closedSegments) {
+            Files.deleteIfExists(closedSegment);
+        }
+        closedSegments.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        segment.force(false);
+        segment.close();
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("stripe-%03d-%019d.journal", stripe, firstSequence));
+    }
+
+    private FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Finds the journal segments left in the directory, grouped by stripe and in sequence order.
+     */
+    static Map<Integer, List<Path>> findSegments(Path directory) throws IOException {
+        Map<Integer, List<Path>> segmentsByStripe = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return segmentsByStripe;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.sorted().forEach(file -> {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segmentsByStripe.computeIfAbsent(Integer.parseInt(matcher.group(1)), stripe -> new ArrayList<>()).add(file);
+                }
+            });
+        }
+        return segmentsByStripe;
+    }
+
+    static void read(Path segment, RecordConsumer consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        CRC32 recordChecksum = new CRC32();
+        while (buffer.remaining() >= RECORD_SIZE) {
+            int start = buffer.position();
+            long recordSequence = buffer.getLong();
+            long serial = buffer.getLong();
+            int delta = buffer.getInt();
+            recordChecksum.reset();
+            recordChecksum.update(buffer.array(), start, buffer.position() - start);
+            if (buffer.getInt() != (int) recordChecksum.getValue()) {
+                return;
+            }
+            consumer.accept(recordSequence, serial, delta);
+        }
+    }
+
+    @FunctionalInterface
+    interface RecordConsumer {
+        void accept(long sequence, long serial, int delta);
+    }
+}
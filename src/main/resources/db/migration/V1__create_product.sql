@@ -0,0 +1,12 @@
+CREATE TABLE product (
+    serial         BIGINT           NOT NULL,
+    name           VARCHAR(200)     NOT NULL,
+    brand          VARCHAR(200)     NOT NULL,
+    quantity       INTEGER          NOT NULL,
+    max            INTEGER          NOT NULL,
+    purchase_price DOUBLE PRECISION NOT NULL,
+    type           VARCHAR(255)     NOT NULL,
+    CONSTRAINT pk_product PRIMARY KEY (serial)
+);
+
+CREATE UNIQUE INDEX ux_product_name ON product (name);
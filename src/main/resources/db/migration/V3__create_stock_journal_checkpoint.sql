@@ -0,0 +1,5 @@
+CREATE TABLE stock_journal_checkpoint (
+    stripe INTEGER NOT NULL,
+    sequence BIGINT NOT NULL,
+    CONSTRAINT pk_stock_journal_checkpoint PRIMARY KEY (stripe)
+);
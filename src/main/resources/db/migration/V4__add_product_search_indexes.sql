@@ -0,0 +1,3 @@
+CREATE INDEX ix_product_type_serial ON product (type, serial);
+CREATE INDEX ix_product_brand_serial ON product (brand, serial);
+CREATE INDEX ix_product_type_purchase_price ON product (type, purchase_price);
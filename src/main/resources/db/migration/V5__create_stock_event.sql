@@ -0,0 +1,15 @@
+CREATE TABLE stock_event (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    serial         BIGINT                      NOT NULL,
+    name           VARCHAR(200)                NOT NULL,
+    level          VARCHAR(255)                NOT NULL,
+    previous_level VARCHAR(255)                NOT NULL,
+    quantity       INTEGER                     NOT NULL,
+    max            INTEGER                     NOT NULL,
+    delta          INTEGER                     NOT NULL,
+    occurred_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    dispatched_at  TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT pk_stock_event PRIMARY KEY (id)
+);
+
+CREATE INDEX ix_stock_event_dispatched_at ON stock_event (dispatched_at, id);
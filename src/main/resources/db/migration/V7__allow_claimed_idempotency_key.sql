@@ -0,0 +1 @@
+ALTER TABLE idempotency_key ALTER COLUMN response DROP NOT NULL;
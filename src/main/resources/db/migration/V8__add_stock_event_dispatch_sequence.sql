@@ -0,0 +1,5 @@
+ALTER TABLE stock_event ADD COLUMN dispatch_sequence BIGINT;
+
+UPDATE stock_event SET dispatch_sequence = id WHERE dispatched_at IS NOT NULL;
+
+CREATE UNIQUE INDEX ux_stock_event_dispatch_sequence ON stock_event (dispatch_sequence);
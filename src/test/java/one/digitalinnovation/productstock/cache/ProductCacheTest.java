@@ -0,0 +1,165 @@
+package one.digitalinnovation.productstock.cache;
+
+import one.digitalinnovation.productstock.builder.ProductDTOBuilder;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ProductCacheTest {
+
+    private CacheManager cacheManager;
+
+    private ProductVersions productVersions;
+
+    private ProductCache productCache;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(ProductCache.BY_NAME, ProductCache.BY_SERIAL);
+        productVersions = new ProductVersions();
+        productCache = new ProductCache(cacheManager, productVersions);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void whenProductIsFoundThenItIsCachedByNameAndSerial() {
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        productCache.get(ProductCache.BY_NAME, productDTO.getName(), () -> Optional.of(productDTO));
+
+        assertThat(cacheManager.getCache(ProductCache.BY_NAME).get(productDTO.getName()).get(), is(equalTo(productDTO)));
+        assertThat(cacheManager.getCache(ProductCache.BY_SERIAL).get(productDTO.getSerial()).get(), is(equalTo(productDTO)));
+    }
+
+    @Test
+    void whenProductIsCachedThenItIsNotQueriedAgain() {
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        AtomicInteger queries = new AtomicInteger();
+
+        productCache.get(ProductCache.BY_SERIAL, productDTO.getSerial(), () -> {
+            queries.incrementAndGet();
+            return Optional.of(productDTO);
+        });
+        Optional<ProductDTO> cached = productCache.get(ProductCache.BY_SERIAL, productDTO.getSerial(), () -> {
+            queries.incrementAndGet();
+            return Optional.of(productDTO);
+        });
+
+        assertThat(cached, is(equalTo(Optional.of(productDTO))));
+        assertThat(queries.get(), is(1));
+    }
+
+    @Test
+    void whenProductIsEvictedThenItIsRemovedByNameAndSerial() {
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        productCache.fill(productDTO, productVersions.catalogVersion());
+
+        productCache.evict(productDTO.getName(), productDTO.getSerial());
+
+        assertThat(cacheManager.getCache(ProductCache.BY_NAME).get(productDTO.getName()), is(nullValue()));
+        assertThat(cacheManager.getCache(ProductCache.BY_SERIAL).get(productDTO.getSerial()), is(nullValue()));
+    }
+
+    @Test
+    void whenProductChangesInsideATransactionThenItIsEvictedOnlyAfterCommit() {
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        productCache.fill(productDTO, productVersions.catalogVersion());
+        TransactionSynchronizationManager.initSynchronization();
+
+        productCache.evict(productDTO);
+
+        assertThat(cacheManager.getCache(ProductCache.BY_NAME).get(productDTO.getName()).get(), is(equalTo(productDTO)));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(cacheManager.getCache(ProductCache.BY_NAME).get(productDTO.getName()), is(nullValue()));
+    }
+
+    @Test
+    void whenProductChangesInsideATransactionThenItsVersionIsBumpedOnlyAfterCommit() {
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        String etag = productVersions.etag(productDTO.getName());
+        String catalogETag = productVersions.catalogETag();
+        TransactionSynchronizationManager.initSynchronization();
+
+        productCache.evict(productDTO);
+
+        assertThat(productVersions.etag(productDTO.getName()), is(equalTo(etag)));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(productVersions.etag(productDTO.getName()), is(not(equalTo(etag))));
+        assertThat(productVersions.catalogETag(), is(not(equalTo(catalogETag))));
+    }
+
+    @Test
+    void whenAWriteCommitsDuringASlowReadThenTheOldProductIsNotCached() throws Exception {
+        ProductDTO oldProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        ProductDTO newProductDTO = ProductDTOBuilder.builder().quantity(oldProductDTO.getQuantity() + 5).build().toProductDTO();
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+
+        CompletableFuture<Optional<ProductDTO>> slowRead = CompletableFuture.supplyAsync(() ->
+                productCache.get(ProductCache.BY_NAME, oldProductDTO.getName(), () -> {
+                    read.countDown();
+                    await(written);
+                    return Optional.of(oldProductDTO);
+                }));
+        assertThat(read.await(5, TimeUnit.SECONDS), is(true));
+        productCache.evict(newProductDTO);
+        written.countDown();
+
+        assertThat(slowRead.get(5, TimeUnit.SECONDS), is(equalTo(Optional.of(oldProductDTO))));
+        assertThat(cacheManager.getCache(ProductCache.BY_NAME).get(oldProductDTO.getName()), is(nullValue()));
+        assertThat(cacheManager.getCache(ProductCache.BY_SERIAL).get(oldProductDTO.getSerial()), is(nullValue()));
+        assertThat(productCache.get(ProductCache.BY_NAME, newProductDTO.getName(), () -> Optional.of(newProductDTO)),
+                is(equalTo(Optional.of(newProductDTO))));
+        assertThat(cacheManager.getCache(ProductCache.BY_NAME).get(newProductDTO.getName()).get(), is(equalTo(newProductDTO)));
+    }
+
+    @Test
+    void whenADeleteCommitsDuringASlowReadThenTheDeletedProductIsNotCached() throws Exception {
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        productCache.evict(productDTO);
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch deleted = new CountDownLatch(1);
+
+        CompletableFuture<Optional<ProductDTO>> slowRead = CompletableFuture.supplyAsync(() ->
+                productCache.get(ProductCache.BY_SERIAL, productDTO.getSerial(), () -> {
+                    read.countDown();
+                    await(deleted);
+                    return Optional.of(productDTO);
+                }));
+        assertThat(read.await(5, TimeUnit.SECONDS), is(true));
+        productCache.remove(productDTO.getName(), productDTO.getSerial());
+        deleted.countDown();
+
+        assertThat(slowRead.get(5, TimeUnit.SECONDS), is(equalTo(Optional.of(productDTO))));
+        assertThat(cacheManager.getCache(ProductCache.BY_NAME).get(productDTO.getName()), is(nullValue()));
+        assertThat(cacheManager.getCache(ProductCache.BY_SERIAL).get(productDTO.getSerial()), is(nullValue()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package one.digitalinnovation.productstock.cache;
+
+import one.digitalinnovation.productstock.builder.ProductDTOBuilder;
+import one.digitalinnovation.productstock.config.CacheWarmUpProperties;
+import one.digitalinnovation.productstock.config.StockEngineProperties;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.repository.ProductRepository;
+import one.digitalinnovation.productstock.stock.StockEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductCacheWarmUpTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @TempDir
+    Path dataDirectory;
+
+    private final ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+    private CacheManager cacheManager;
+
+    private ProductVersions productVersions;
+
+    private ProductCacheWarmUp productCacheWarmUp;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CaffeineCacheManager(ProductCache.BY_NAME, ProductCache.BY_SERIAL);
+        productVersions = new ProductVersions();
+        productCacheWarmUp = new ProductCacheWarmUp(properties(), cacheManager, new ProductCache(cacheManager, productVersions),
+                productRepository, productVersions, stockEngine());
+    }
+
+    @Test
+    void whenHotProductsWereSavedThenTheyAreCachedOnTheNextWarmUp() throws IOException {
+        //given
+        new ProductCache(cacheManager, productVersions).fill(productDTO, productVersions.catalogVersion());
+        productCacheWarmUp.saveHotSerials();
+        CacheManager restartedCacheManager = new CaffeineCacheManager(ProductCache.BY_NAME, ProductCache.BY_SERIAL);
+        ProductVersions restartedProductVersions = new ProductVersions();
+        ProductCacheWarmUp restarted = new ProductCacheWarmUp(properties(), restartedCacheManager,
+                new ProductCache(restartedCacheManager, restartedProductVersions), productRepository, restartedProductVersions,
+                stockEngine());
+        when(productRepository.findDTOsBySerialIn(List.of(productDTO.getSerial()))).thenReturn(List.of(productDTO));
+
+        //when
+        int cached = restarted.warmUp();
+
+        //then
+        assertThat(Files.readAllLines(dataDirectory.resolve("hot-products")), contains(String.valueOf(productDTO.getSerial())));
+        assertThat(cached, is(1));
+    }
+
+    @Test
+    void whenNoHotProductsWereSavedThenTheFirstProductsAreCached() throws IOException {
+        //given
+        when(productRepository.findDTOsOrderedBySerial(PageRequest.of(0, 1000))).thenReturn(List.of(productDTO));
+
+        //when
+        productCacheWarmUp.warmUp();
+
+        //then
+        assertThat(cacheManager.getCache(ProductCache.BY_NAME).get(productDTO.getName()).get(), is(equalTo(productDTO)));
+        assertThat(cacheManager.getCache(ProductCache.BY_SERIAL).get(productDTO.getSerial()).get(), is(equalTo(productDTO)));
+    }
+
+    @Test
+    void whenProductChangesWhileItIsLoadedThenItIsNotCached() throws IOException {
+        //given
+        when(productRepository.findDTOsOrderedBySerial(Mockito.any())).thenAnswer(invocation -> {
+            productVersions.changed(productDTO.getName(), productDTO.getSerial());
+            return List.of(productDTO);
+        });
+
+        //when
+        int cached = productCacheWarmUp.warmUp();
+
+        //then
+        assertThat(cached, is(0));
+        assertThat(cacheManager.getCache(ProductCache.BY_NAME).get(productDTO.getName()), is(nullValue()));
+        assertThat(cacheManager.getCache(ProductCache.BY_SERIAL).get(productDTO.getSerial()), is(nullValue()));
+    }
+
+    private static StockEngine stockEngine() {
+        return new StockEngine(new StockEngineProperties(), null, null, null);
+    }
+
+    private CacheWarmUpProperties properties() {
+        CacheWarmUpProperties properties = new CacheWarmUpProperties();
+        properties.setEnabled(true);
+        properties.setHotProductsFile(dataDirectory.resolve("hot-products"));
+        return properties;
+    }
+}
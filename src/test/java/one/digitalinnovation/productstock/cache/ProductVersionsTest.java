@@ -0,0 +1,77 @@
+package one.digitalinnovation.productstock.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ProductVersionsTest {
+
+    private final ProductVersions productVersions = new ProductVersions();
+
+    @Test
+    void whenProductChangesThenOnlyItsETagAndTheCatalogETagChange() {
+        String changedETag = productVersions.etag("Todo Dia");
+        String unchangedETag = productVersions.etag("Golden");
+        String catalogETag = productVersions.catalogETag();
+
+        productVersions.changed("Todo Dia", 1L);
+
+        assertThat(productVersions.etag("Todo Dia"), is(not(equalTo(changedETag))));
+        assertThat(productVersions.etag("Golden"), is(equalTo(unchangedETag)));
+        assertThat(productVersions.catalogETag(), is(not(equalTo(catalogETag))));
+    }
+
+    @Test
+    void whenProductChangesThenOnlyItsSerialVersionChanges() {
+        long unchangedVersion = productVersions.version(2L);
+
+        productVersions.changed("Todo Dia", 1L);
+
+        assertThat(productVersions.version(1L), is(equalTo(productVersions.catalogVersion())));
+        assertThat(productVersions.version(2L), is(equalTo(unchangedVersion)));
+    }
+
+    @Test
+    void whenApplicationRestartsThenPreviousETagsDoNotMatch() {
+        String etag = productVersions.etag("Todo Dia");
+
+        assertThat(new ProductVersions().etag("Todo Dia"), is(not(equalTo(etag))));
+    }
+
+    @Test
+    void whenETagIsGeneratedThenItIsWeakSoCompressedResponsesKeepIt() {
+        assertThat(productVersions.etag("Todo Dia"), startsWith("W/\""));
+        assertThat(productVersions.catalogETag(), startsWith("W/\""));
+    }
+
+    @Test
+    void whenProductIsRemovedThenItIsForgottenWithoutReusingATag() {
+        productVersions.changed("Todo Dia", 1L);
+        long changedVersion = productVersions.version("Todo Dia");
+        String changedETag = productVersions.etag("Todo Dia");
+
+        productVersions.removed("Todo Dia", 1L);
+
+        assertThat(productVersions.version("Todo Dia"), is(greaterThan(changedVersion)));
+        assertThat(productVersions.version(1L), is(greaterThan(changedVersion)));
+        assertThat(productVersions.etag("Todo Dia"), is(not(equalTo(changedETag))));
+        productVersions.changed("Todo Dia", 1L);
+        assertThat(productVersions.version("Todo Dia"), is(equalTo(productVersions.catalogVersion())));
+    }
+
+    @Test
+    void whenTooManyProductsAreTrackedThenForgottenProductsKeepAVersionAtLeastTheirOwn() {
+        for (int i = 0; i <= ProductVersions.MAXIMUM_TRACKED_PRODUCTS; i++) {
+            productVersions.changed("Product " + i, (long) i);
+        }
+        long lastVersion = productVersions.catalogVersion();
+
+        assertThat(productVersions.version("Product 0"), is(equalTo(lastVersion)));
+        assertThat(productVersions.version("Product " + ProductVersions.MAXIMUM_TRACKED_PRODUCTS), is(equalTo(lastVersion)));
+        assertThat(productVersions.version(0L), is(equalTo(lastVersion)));
+        productVersions.changed("Golden", -1L);
+        assertThat(productVersions.version("Golden"), is(greaterThan(lastVersion)));
+        assertThat(productVersions.version("Product 0"), is(equalTo(lastVersion)));
+    }
+}
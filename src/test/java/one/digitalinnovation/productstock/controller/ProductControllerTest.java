@@ -1,11 +1,31 @@
 package one.digitalinnovation.productstock.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import one.digitalinnovation.productstock.builder.ProductDTOBuilder;
+import one.digitalinnovation.productstock.config.IdempotencyProperties;
+import one.digitalinnovation.productstock.config.ReplicaProperties;
+import one.digitalinnovation.productstock.config.WireFormatConfig;
+import one.digitalinnovation.productstock.datasource.ReadYourWrites;
 import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.dto.ProductFilterDTO;
+import one.digitalinnovation.productstock.dto.ProductImportResultDTO;
+import one.digitalinnovation.productstock.dto.ProductPageDTO;
+import one.digitalinnovation.productstock.dto.ProductSearchHitDTO;
 import one.digitalinnovation.productstock.dto.QuantityDTO;
+import one.digitalinnovation.productstock.dto.StockAdjustmentDTO;
+import one.digitalinnovation.productstock.dto.StockAdjustmentResultDTO;
+import one.digitalinnovation.productstock.enums.ProductType;
+import one.digitalinnovation.productstock.event.SseStockEventPublisher;
 import one.digitalinnovation.productstock.exception.ProductNotFoundException;
 import one.digitalinnovation.productstock.exception.ProductStockExceededException;
 import one.digitalinnovation.productstock.exception.ProductStockException;
+import one.digitalinnovation.productstock.idempotency.IdempotentRequests;
+import one.digitalinnovation.productstock.idempotency.InMemoryIdempotencyStore;
+import one.digitalinnovation.productstock.search.ProductSearchIndex;
+import one.digitalinnovation.productstock.service.ProductImportService;
 import one.digitalinnovation.productstock.service.ProductService;
 import one.digitalinnovation.productstock.utils.JsonConvertionUtils;
 import org.hamcrest.core.Is;
@@ -14,22 +34,38 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
+import java.io.InputStream;
 import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,6 +82,30 @@ public class ProductControllerTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private ProductImportService productImportService;
+
+    @Mock
+    private SseStockEventPublisher sseStockEventPublisher;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter =
+            new MappingJackson2SmileHttpMessageConverter(WireFormatConfig.smileMapper(new Jackson2ObjectMapperBuilder()));
+
+    @Spy
+    private MappingJackson2CborHttpMessageConverter cborHttpMessageConverter =
+            new MappingJackson2CborHttpMessageConverter(WireFormatConfig.cborMapper(new Jackson2ObjectMapperBuilder()));
+
+    @Spy
+    private IdempotentRequests idempotentRequests =
+            new IdempotentRequests(new InMemoryIdempotencyStore(new IdempotencyProperties()), new IdempotencyProperties());
+
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(readYourWritesProperties());
+
     @InjectMocks
     private ProductController productController;
 
@@ -54,6 +114,7 @@ public class ProductControllerTest {
         mockMvc = MockMvcBuilders.standaloneSetup(productController)
                 .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
                 .setViewResolvers((s, locale) -> new MappingJackson2JsonView())
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(), smileHttpMessageConverter, cborHttpMessageConverter)
                 .build();
     }
 
@@ -105,6 +166,39 @@ public class ProductControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.type", Is.is(productDTO.getType().toString())));
     }
 
+    @Test
+    void whenGETIsCalledThenProductVersionIsReturnedAsETag() throws Exception {
+        //given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        //when
+        when(productService.etag(productDTO.getName())).thenReturn("W/\"epoch-3\"");
+        when(productService.findByName(productDTO.getName())).thenReturn(productDTO);
+
+        //then
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/" + productDTO.getName())
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"epoch-3\""));
+    }
+
+    @Test
+    void whenGETIsCalledWithCurrentETagThenNotModifiedStatusIsReturnedWithoutReadingTheProduct() throws Exception {
+        //given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        //when
+        when(productService.etag(productDTO.getName())).thenReturn("W/\"epoch-3\"");
+
+        //then
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/" + productDTO.getName())
+                .header("If-None-Match", "W/\"epoch-3\"")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(productService, never()).findByName(productDTO.getName());
+    }
+
     @Test
     void whenGETIsCalledWithoutRegisteredSerialThenNotFoundStatusIsReturned() throws Exception {
         //given
@@ -136,6 +230,41 @@ public class ProductControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].type", Is.is(productDTO.getType().toString())));
     }
 
+    @Test
+    void whenGETListIsCalledAcceptingSmileThenProductsAreEncodedWithTypeOrdinal() throws Exception {
+        //given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        ObjectMapper smileMapper = smileHttpMessageConverter.getObjectMapper();
+
+        //when
+        when(productService.listAll()).thenReturn(Collections.singletonList(productDTO));
+
+        //then
+        byte[] body = mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
+                .accept(ProductController.APPLICATION_SMILE_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ProductController.APPLICATION_SMILE_VALUE))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode products = smileMapper.readTree(body);
+        assertThat(products.get(0).get("type").isInt(), is(true));
+        assertThat(products.get(0).get("type").asInt(), is(productDTO.getType().ordinal()));
+        assertThat(smileMapper.readValue(body, new TypeReference<List<ProductDTO>>() {
+        }), is(Collections.singletonList(productDTO)));
+    }
+
+    @Test
+    void whenGETListIsCalledWithCurrentCatalogETagThenNotModifiedStatusIsReturnedWithoutListing() throws Exception {
+        //when
+        when(productService.catalogETag()).thenReturn("epoch-7");
+
+        //then
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
+                .header("If-None-Match", "\"epoch-7\"")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+        verify(productService, never()).listAll();
+    }
+
     @Test
     void whenGETListWithoutProductsIsCalledThenOkStatusIsReturned() throws Exception {
         //given
@@ -150,6 +279,146 @@ public class ProductControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void whenGETListWithLimitIsCalledThenPageAndNextCursorAreReturned() throws Exception {
+        //given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        ProductPageDTO productPageDTO = new ProductPageDTO(Collections.singletonList(productDTO), productDTO.getSerial());
+
+        //when
+        when(productService.listPage(null, 1)).thenReturn(productPageDTO);
+
+        //then
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
+                .param("limit", "1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ProductController.NEXT_CURSOR_HEADER, productDTO.getSerial().toString()))
+                .andExpect(jsonPath("$[0].name", is(productDTO.getName())));
+    }
+
+    @Test
+    void whenGETListWithCursorOnLastPageIsCalledThenNoNextCursorIsReturned() throws Exception {
+        //given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        ProductPageDTO productPageDTO = new ProductPageDTO(Collections.singletonList(productDTO), null);
+
+        //when
+        when(productService.listPage(VALID_PRODUCT_ID, ProductService.DEFAULT_PAGE_SIZE)).thenReturn(productPageDTO);
+
+        //then
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
+                .param("cursor", String.valueOf(VALID_PRODUCT_ID))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ProductController.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$[0].name", is(productDTO.getName())));
+    }
+
+    @Test
+    void whenGETSearchIsCalledThenRankedHitsAreReturned() throws Exception {
+        //given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        ProductSearchHitDTO hit = new ProductSearchHitDTO(productDTO.getSerial(), productDTO.getName(), productDTO.getBrand(), productDTO.getType(), 1.0);
+
+        //when
+        when(productService.suggest("gold", ProductSearchIndex.DEFAULT_LIMIT)).thenReturn(Collections.singletonList(hit));
+
+        //then
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/search")
+                .param("q", "gold")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].serial", is(productDTO.getSerial().intValue())))
+                .andExpect(jsonPath("$[0].name", is(productDTO.getName())));
+    }
+
+    @Test
+    void whenGETListWithFilterIsCalledThenSearchIsUsed() throws Exception {
+        //given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        ProductPageDTO productPageDTO = new ProductPageDTO(Collections.singletonList(productDTO), null);
+        ProductFilterDTO expectedFilter = ProductFilterDTO.builder()
+                .type(ProductType.RACAO)
+                .brand(productDTO.getBrand())
+                .maxPrice(100.0)
+                .build();
+
+        //when
+        when(productService.search(expectedFilter, null, ProductService.DEFAULT_PAGE_SIZE)).thenReturn(productPageDTO);
+
+        //then
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
+                .param("type", "RACAO")
+                .param("brand", productDTO.getBrand())
+                .param("maxPrice", "100")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(productDTO.getName())));
+    }
+
+    @Test
+    void whenGETListWithOutOfRangeFilterIsCalledThenBadRequestStatusIsReturned() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
+                .param("lowStockRatio", "1.5")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenGETExportIsCalledThenProductsAreStreamedAsNdjson() throws Exception {
+        //given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        //when
+        doAnswer(invocation -> {
+            Consumer<ProductDTO> consumer = invocation.getArgument(0);
+            consumer.accept(productDTO);
+            consumer.accept(productDTO);
+            return null;
+        }).when(productService).exportAll(any(Consumer.class));
+
+        //then
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String productJson = JsonConvertionUtils.asJsonString(productDTO);
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string(productJson + "\n" + productJson + "\n"));
+    }
+
+    @Test
+    void whenGETExportIsCalledAcceptingCborSequenceThenProductsAreStreamedAsCborItems() throws Exception {
+        //given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        //when
+        doAnswer(invocation -> {
+            Consumer<ProductDTO> consumer = invocation.getArgument(0);
+            consumer.accept(productDTO);
+            consumer.accept(productDTO);
+            return null;
+        }).when(productService).exportAll(any(Consumer.class));
+
+        //then
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/export")
+                .accept(ProductController.APPLICATION_CBOR_SEQ_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ProductController.APPLICATION_CBOR_SEQ_VALUE))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (MappingIterator<ProductDTO> products = cborHttpMessageConverter.getObjectMapper()
+                .readerFor(ProductDTO.class).readValues(body)) {
+            assertThat(products.readAll(), is(List.of(productDTO, productDTO)));
+        }
+    }
+
     @Test
     void whenDELETEIsCalledWithValidSerialThenNoContentIsReturned() throws Exception {
         //given
@@ -195,6 +464,74 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.quantity", is(productDTO.getQuantity())));
     }
 
+    @Test
+    void whenPATCHIncrementIsRetriedWithSameIdempotencyKeyThenStoredResponseIsReturnedWithoutIncrementingAgain() throws Exception {
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(10)
+                .build();
+
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        productDTO.setQuantity(productDTO.getQuantity() + quantityDTO.getQuantity());
+
+        when(productService.increment(VALID_PRODUCT_ID, quantityDTO.getQuantity())).thenReturn(productDTO);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(patch(PRODUCT_API_URL_PATH + "/" + VALID_PRODUCT_ID + PRODUCT_API_SUBPATH_INCREMENT_URL)
+                    .header(ProductController.IDEMPOTENCY_KEY_HEADER, "retry-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(JsonConvertionUtils.asJsonString(quantityDTO))).andExpect(status().isOk())
+                    .andExpect(jsonPath("$.quantity", is(productDTO.getQuantity())));
+        }
+        verify(productService, times(1)).increment(VALID_PRODUCT_ID, quantityDTO.getQuantity());
+    }
+
+    @Test
+    void whenPATCHDecrementReusesIdempotencyKeyOfAnotherRequestThenUnprocessableEntityStatusIsReturned() throws Exception {
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(5)
+                .build();
+
+        when(productService.decrement(VALID_PRODUCT_ID, quantityDTO.getQuantity())).thenReturn(ProductDTOBuilder.builder().build().toProductDTO());
+
+        mockMvc.perform(patch(PRODUCT_API_URL_PATH + "/" + VALID_PRODUCT_ID + PRODUCT_API_SUBPATH_DECREMENT_URL)
+                .header(ProductController.IDEMPOTENCY_KEY_HEADER, "retry-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonConvertionUtils.asJsonString(quantityDTO))).andExpect(status().isOk());
+        mockMvc.perform(patch(PRODUCT_API_URL_PATH + "/" + INVALID_PRODUCT_ID + PRODUCT_API_SUBPATH_DECREMENT_URL)
+                .header(ProductController.IDEMPOTENCY_KEY_HEADER, "retry-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonConvertionUtils.asJsonString(quantityDTO))).andExpect(status().isUnprocessableEntity());
+        verify(productService, never()).decrement(INVALID_PRODUCT_ID, quantityDTO.getQuantity());
+    }
+
+    @Test
+    void whenPATCHIncrementHasAnIdempotencyKeyTooLongToStoreThenBadRequestStatusIsReturned() throws Exception {
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(10)
+                .build();
+
+        mockMvc.perform(patch(PRODUCT_API_URL_PATH + "/" + VALID_PRODUCT_ID + PRODUCT_API_SUBPATH_INCREMENT_URL)
+                .header(ProductController.IDEMPOTENCY_KEY_HEADER, "k".repeat(ProductController.IDEMPOTENCY_KEY_MAX_LENGTH + 1))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonConvertionUtils.asJsonString(quantityDTO))).andExpect(status().isBadRequest());
+        verify(productService, never()).increment(VALID_PRODUCT_ID, quantityDTO.getQuantity());
+    }
+
+    @Test
+    void whenPATCHDecrementSucceedsThenTheClientIsPinnedToThePrimary() throws Exception {
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(5)
+                .build();
+
+        when(productService.decrement(VALID_PRODUCT_ID, quantityDTO.getQuantity())).thenReturn(ProductDTOBuilder.builder().build().toProductDTO());
+
+        mockMvc.perform(patch(PRODUCT_API_URL_PATH + "/" + VALID_PRODUCT_ID + PRODUCT_API_SUBPATH_DECREMENT_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonConvertionUtils.asJsonString(quantityDTO))).andExpect(status().isOk())
+                .andExpect(cookie().exists(ReadYourWrites.COOKIE))
+                .andExpect(cookie().maxAge(ReadYourWrites.COOKIE, 2));
+    }
+
     @Test
     void whenPATCHIsCalledToIncrementGreatherThanMaxThenBadRequestStatusIsReturned() throws Exception {
         QuantityDTO quantityDTO = QuantityDTO.builder()
@@ -272,5 +609,81 @@ public class ProductControllerTest {
                 .content(JsonConvertionUtils.asJsonString(quantityDTO)))
                 .andExpect(status().isNotFound());
     }
-}
 
+    @Test
+    void whenPOSTStockBatchIsCalledThenResultOfEachAdjustmentIsReturned() throws Exception {
+        StockAdjustmentDTO adjustmentDTO = StockAdjustmentDTO.builder()
+                .serial(VALID_PRODUCT_ID)
+                .delta(5)
+                .build();
+        List<StockAdjustmentDTO> adjustments = Collections.singletonList(adjustmentDTO);
+
+        when(productService.adjustStock(adjustments))
+                .thenReturn(Collections.singletonList(StockAdjustmentResultDTO.success(adjustmentDTO, 15)));
+
+        mockMvc.perform(post(PRODUCT_API_URL_PATH + "/stock/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonConvertionUtils.asJsonString(adjustments)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].serial", is((int) VALID_PRODUCT_ID)))
+                .andExpect(jsonPath("$[0].success", is(true)))
+                .andExpect(jsonPath("$[0].quantity", is(15)));
+    }
+
+    @Test
+    void whenPOSTStockBatchIsCalledWithCborThenResultIsReturnedInCbor() throws Exception {
+        StockAdjustmentDTO adjustmentDTO = StockAdjustmentDTO.builder()
+                .serial(VALID_PRODUCT_ID)
+                .delta(-5)
+                .build();
+        List<StockAdjustmentDTO> adjustments = Collections.singletonList(adjustmentDTO);
+        ObjectMapper cborMapper = cborHttpMessageConverter.getObjectMapper();
+
+        when(productService.adjustStock(adjustments))
+                .thenReturn(Collections.singletonList(StockAdjustmentResultDTO.success(adjustmentDTO, 5)));
+
+        byte[] body = mockMvc.perform(post(PRODUCT_API_URL_PATH + "/stock/batch")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(cborMapper.writeValueAsBytes(adjustments)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(cborMapper.readValue(body, new TypeReference<List<StockAdjustmentResultDTO>>() {
+        }), is(Collections.singletonList(StockAdjustmentResultDTO.success(adjustmentDTO, 5))));
+    }
+
+    @Test
+    void whenPOSTImportIsCalledWithCsvThenImportResultIsReturned() throws Exception {
+        ProductImportResultDTO importResultDTO = new ProductImportResultDTO(2, 1, 0);
+
+        when(productImportService.importCsv(any(InputStream.class))).thenReturn(importResultDTO);
+
+        mockMvc.perform(post(PRODUCT_API_URL_PATH + "/import")
+                .contentType(ProductController.TEXT_CSV_VALUE)
+                .content("serial,name,brand,quantity,max,purchasePrice,type\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.duplicated", is(1)));
+    }
+
+    @Test
+    void whenGETStockEventsIsCalledWithLastEventIdThenStreamResumesAfterIt() throws Exception {
+        //when
+        when(sseStockEventPublisher.subscribe(42L)).thenReturn(new SseEmitter());
+
+        //then
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/stock/events")
+                .header(ProductController.LAST_EVENT_ID_HEADER, "42")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+        verify(sseStockEventPublisher, times(1)).subscribe(42L);
+    }
+
+    private static ReplicaProperties readYourWritesProperties() {
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setEnabled(true);
+        properties.setReadYourWrites(true);
+        return properties;
+    }
+}
@@ -0,0 +1,103 @@
+package one.digitalinnovation.productstock.controller;
+
+import one.digitalinnovation.productstock.builder.ProductDTOBuilder;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.dto.ProductPageDTO;
+import one.digitalinnovation.productstock.dto.QuantityDTO;
+import one.digitalinnovation.productstock.exception.ProductNotFoundException;
+import one.digitalinnovation.productstock.exception.ProductStockException;
+import one.digitalinnovation.productstock.service.ReactiveProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveProductControllerTest {
+
+    private static final String PRODUCT_API_URL_PATH = "/api/v1/products";
+    private static final long INVALID_PRODUCT_ID = 2L;
+
+    private WebTestClient webTestClient;
+
+    @Mock
+    private ReactiveProductService productService;
+
+    @InjectMocks
+    private ReactiveProductController productController;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToController(productController).build();
+    }
+
+    @Test
+    void whenGETIsCalledWithValidNameThenOkStatusIsReturned() {
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        when(productService.findByName(productDTO.getName())).thenReturn(Mono.just(productDTO));
+
+        webTestClient.get().uri(PRODUCT_API_URL_PATH + "/" + productDTO.getName())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo(productDTO.getName());
+    }
+
+    @Test
+    void whenGETIsCalledWithoutRegisteredNameThenNotFoundStatusIsReturned() {
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        when(productService.findByName(productDTO.getName())).thenReturn(Mono.error(new ProductNotFoundException(productDTO.getName())));
+
+        webTestClient.get().uri(PRODUCT_API_URL_PATH + "/" + productDTO.getName())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void whenExportIsCalledThenProductsAreStreamedAsNdjson() {
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        when(productService.listAll()).thenReturn(Flux.just(productDTO));
+
+        webTestClient.get().uri(PRODUCT_API_URL_PATH + "/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(ProductDTO.class).contains(productDTO);
+    }
+
+    @Test
+    void whenGETPageIsCalledThenNextCursorHeaderIsReturned() {
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        when(productService.listPage(null, 1))
+                .thenReturn(Mono.just(new ProductPageDTO(Collections.singletonList(productDTO), productDTO.getSerial())));
+
+        webTestClient.get().uri(PRODUCT_API_URL_PATH + "?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(ProductController.NEXT_CURSOR_HEADER, productDTO.getSerial().toString())
+                .expectBodyList(ProductDTO.class).hasSize(1);
+    }
+
+    @Test
+    void whenPATCHIsCalledToDecrementLowerThanZeroThenBadRequestStatusIsReturned() {
+        QuantityDTO quantityDTO = QuantityDTO.builder().quantity(60).build();
+        when(productService.decrement(INVALID_PRODUCT_ID, quantityDTO.getQuantity()))
+                .thenReturn(Mono.error(new ProductStockException(INVALID_PRODUCT_ID, quantityDTO.getQuantity())));
+
+        webTestClient.patch().uri(PRODUCT_API_URL_PATH + "/" + INVALID_PRODUCT_ID + "/decrement")
+                .bodyValue(quantityDTO)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,89 @@
+package one.digitalinnovation.productstock.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    private static final String FIRST_REPLICA_URL = "jdbc:h2:mem:routing-replica-0;DB_CLOSE_DELAY=-1";
+    private static final String SECOND_REPLICA_URL = "jdbc:h2:mem:routing-replica-1;DB_CLOSE_DELAY=-1";
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(h2(PRIMARY_URL),
+                List.of(h2(FIRST_REPLICA_URL), h2(SECOND_REPLICA_URL)));
+        dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void whenReadOnlyTransactionReadsFromReplicaThenReplicasAreUsedInTurn() throws SQLException {
+        // given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        Boolean previous = ReplicaRoutingDataSource.enterReplicaRead();
+        try {
+            // then
+            String first = databaseName();
+            String second = databaseName();
+            assertThat(first, startsWith("ROUTING-REPLICA-"));
+            assertThat(second, startsWith("ROUTING-REPLICA-"));
+            assertThat(second, not(equalTo(first)));
+            assertThat(databaseName(), equalTo(first));
+        } finally {
+            ReplicaRoutingDataSource.restore(previous);
+        }
+    }
+
+    @Test
+    void whenTransactionIsNotReadOnlyOrNotMarkedThenPrimaryIsUsed() throws SQLException {
+        // when
+        Boolean previous = ReplicaRoutingDataSource.enterReplicaRead();
+        try {
+            // then
+            assertThat(databaseName(), equalTo("ROUTING-PRIMARY"));
+        } finally {
+            ReplicaRoutingDataSource.restore(previous);
+        }
+
+        // given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // then
+        assertThat(databaseName(), equalTo("ROUTING-PRIMARY"));
+    }
+
+    private String databaseName() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             var resultSet = connection.createStatement().executeQuery("SELECT DATABASE()")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    private static DataSource h2(String url) {
+        return new DriverManagerDataSource(url, "sa", "");
+    }
+}
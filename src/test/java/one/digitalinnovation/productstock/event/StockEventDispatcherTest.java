@@ -0,0 +1,120 @@
+package one.digitalinnovation.productstock.event;
+
+import one.digitalinnovation.productstock.config.StockEventProperties;
+import one.digitalinnovation.productstock.dto.StockEventDTO;
+import one.digitalinnovation.productstock.entity.StockEvent;
+import one.digitalinnovation.productstock.enums.StockLevel;
+import one.digitalinnovation.productstock.repository.StockEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StockEventDispatcherTest {
+
+    @Mock
+    private StockEventRepository stockEventRepository;
+
+    private final List<StockEventDTO> publishedEvents = new ArrayList<>();
+
+    private StockEventProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StockEventProperties();
+        properties.setBatchSize(2);
+    }
+
+    @Test
+    void whenOutboxHasPendingEventsThenTheyArePublishedInBatchesAndMarkedAsDispatched() {
+        //given
+        StockEventDispatcher dispatcher = dispatcher(publishedEvents::addAll);
+        List<StockEvent> events = Arrays.asList(event(1L), event(2L), event(3L));
+        when(stockEventRepository.findLastDispatchSequence()).thenReturn(0L, 2L);
+        when(stockEventRepository.findByDispatchedAtIsNullOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(events.subList(0, 2))
+                .thenReturn(events.subList(2, 3));
+
+        //when
+        int dispatched = dispatcher.dispatch();
+
+        //then
+        assertThat(dispatched, is(3));
+        assertThat(publishedEvents.stream().map(StockEventDTO::getId).collect(Collectors.toList()), contains(1L, 2L, 3L));
+        assertThat(events.stream().map(StockEvent::getDispatchSequence).collect(Collectors.toList()), contains(1L, 2L, 3L));
+        assertThat(events.stream().allMatch(event -> event.getDispatchedAt() != null), is(true));
+        verify(stockEventRepository, times(1)).deleteDispatchedBefore(any(Instant.class));
+    }
+
+    @Test
+    void whenOutboxIsEmptyThenNothingIsPublished() {
+        //given
+        StockEventDispatcher dispatcher = dispatcher(publishedEvents::addAll);
+        when(stockEventRepository.findByDispatchedAtIsNullOrderByIdAsc(any(Pageable.class))).thenReturn(Collections.emptyList());
+
+        //when
+        int dispatched = dispatcher.dispatch();
+
+        //then
+        assertThat(dispatched, is(0));
+        assertThat(publishedEvents, is(empty()));
+        verify(stockEventRepository, never()).findLastDispatchSequence();
+    }
+
+    @Test
+    void whenEventsCommitOutOfIdOrderThenTheyAreSequencedInDispatchOrder() {
+        //given
+        StockEventDispatcher dispatcher = dispatcher(publishedEvents::addAll);
+        when(stockEventRepository.findLastDispatchSequence()).thenReturn(41L);
+        when(stockEventRepository.findByDispatchedAtIsNullOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(Collections.singletonList(event(7L)));
+
+        //when
+        dispatcher.dispatch();
+
+        //then
+        assertThat(publishedEvents.get(0).getId(), is(7L));
+        assertThat(publishedEvents.get(0).getDispatchSequence(), is(42L));
+    }
+
+    @Test
+    void whenPublisherFailsThenEventsAreNotMarkedAsDispatched() {
+        //given
+        StockEventDispatcher dispatcher = dispatcher(events -> {
+            throw new IllegalStateException("broker unavailable");
+        });
+        when(stockEventRepository.findByDispatchedAtIsNullOrderByIdAsc(any(Pageable.class))).thenReturn(Collections.singletonList(event(1L)));
+
+        //then
+        assertThrows(IllegalStateException.class, dispatcher::dispatch);
+        verify(stockEventRepository, never()).deleteDispatchedBefore(any(Instant.class));
+    }
+
+    private StockEventDispatcher dispatcher(StockEventPublisher publisher) {
+        return new StockEventDispatcher(stockEventRepository, Collections.singletonList(publisher), properties,
+                new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)));
+    }
+
+    private static StockEvent event(Long id) {
+        return new StockEvent(id, 1L, "Todo Dia", StockLevel.LOW_STOCK, StockLevel.IN_STOCK, 9, 50, -2, Instant.now(), null, null);
+    }
+}
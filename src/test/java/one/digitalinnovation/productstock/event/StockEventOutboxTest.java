@@ -0,0 +1,78 @@
+package one.digitalinnovation.productstock.event;
+
+import one.digitalinnovation.productstock.builder.ProductDTOBuilder;
+import one.digitalinnovation.productstock.config.StockEventProperties;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.entity.StockEvent;
+import one.digitalinnovation.productstock.enums.StockLevel;
+import one.digitalinnovation.productstock.repository.StockEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StockEventOutboxTest {
+
+    @Mock
+    private StockEventRepository stockEventRepository;
+
+    private StockEventOutbox stockEventOutbox;
+
+    @BeforeEach
+    void setUp() {
+        stockEventOutbox = new StockEventOutbox(stockEventRepository, new StockEventProperties());
+    }
+
+    @Test
+    void whenDecrementCrossesTheLowStockThresholdThenAnEventIsWritten() {
+        //given
+        ProductDTO productDTO = ProductDTOBuilder.builder().quantity(9).max(50).build().toProductDTO();
+
+        //when
+        stockEventOutbox.record(productDTO, -2);
+
+        //then
+        ArgumentCaptor<StockEvent> event = ArgumentCaptor.forClass(StockEvent.class);
+        verify(stockEventRepository, times(1)).save(event.capture());
+        assertThat(event.getValue().getSerial(), is(equalTo(productDTO.getSerial())));
+        assertThat(event.getValue().getLevel(), is(StockLevel.LOW_STOCK));
+        assertThat(event.getValue().getPreviousLevel(), is(StockLevel.IN_STOCK));
+        assertThat(event.getValue().getQuantity(), is(9));
+        assertThat(event.getValue().getDispatchedAt(), is(nullValue()));
+    }
+
+    @Test
+    void whenIncrementReplenishesAnEmptyStockThenAnEventIsWritten() {
+        //given
+        ProductDTO productDTO = ProductDTOBuilder.builder().quantity(30).max(50).build().toProductDTO();
+
+        //when
+        stockEventOutbox.record(productDTO, 30);
+
+        //then
+        ArgumentCaptor<StockEvent> event = ArgumentCaptor.forClass(StockEvent.class);
+        verify(stockEventRepository, times(1)).save(event.capture());
+        assertThat(event.getValue().getLevel(), is(StockLevel.IN_STOCK));
+        assertThat(event.getValue().getPreviousLevel(), is(StockLevel.OUT_OF_STOCK));
+    }
+
+    @Test
+    void whenStockStaysAtTheSameLevelThenNoEventIsWritten() {
+        //given
+        ProductDTO productDTO = ProductDTOBuilder.builder().quantity(20).max(50).build().toProductDTO();
+
+        //when
+        stockEventOutbox.record(productDTO, -5);
+
+        //then
+        verify(stockEventRepository, never()).save(any());
+    }
+}
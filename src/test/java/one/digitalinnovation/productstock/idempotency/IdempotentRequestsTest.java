@@ -0,0 +1,185 @@
+package one.digitalinnovation.productstock.idempotency;
+
+import one.digitalinnovation.productstock.builder.ProductDTOBuilder;
+import one.digitalinnovation.productstock.config.IdempotencyProperties;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.exception.IdempotencyKeyInProgressException;
+import one.digitalinnovation.productstock.exception.ProductStockException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+
+public class IdempotentRequestsTest {
+
+    private final ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+    private IdempotencyProperties properties;
+
+    private IdempotentRequests idempotentRequests;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IdempotencyProperties();
+        idempotentRequests = new IdempotentRequests(new InMemoryIdempotencyStore(properties), properties);
+    }
+
+    @Test
+    void whenConcurrentRequestsShareAKeyThenTheOperationRunsOnceAndBothGetItsResponse() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ProductDTO> first = executor.submit(() -> idempotentRequests.execute("key", "increment:1:10", () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                release.await();
+                return productDTO;
+            }));
+            started.await();
+            Future<ProductDTO> retry = executor.submit(() -> idempotentRequests.execute("key", "increment:1:10", () -> {
+                executions.incrementAndGet();
+                return productDTO;
+            }));
+
+            assertThrows(TimeoutException.class, () -> retry.get(100, TimeUnit.MILLISECONDS));
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS), is(productDTO));
+            assertThat(retry.get(5, TimeUnit.SECONDS), is(productDTO));
+            assertThat(executions.get(), is(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void whenOperationFailsThenNothingIsStoredAndTheRetryRunsIt() throws Exception {
+        assertThrows(ProductStockException.class, () -> idempotentRequests.execute("key", "decrement:1:60", () -> {
+            throw new ProductStockException(1L, 60);
+        }));
+
+        ProductDTO response = idempotentRequests.execute("key", "decrement:1:60", () -> productDTO);
+
+        assertThat(response, is(productDTO));
+    }
+
+    @Test
+    void whenFirstAttemptOutlastsTheInFlightTimeoutThenTheRetryIsRejected() throws Exception {
+        properties.setInFlightTimeout(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> idempotentRequests.execute("key", "increment:1:10", () -> {
+                started.countDown();
+                release.await();
+                return productDTO;
+            }));
+            started.await();
+
+            assertThrows(IdempotencyKeyInProgressException.class,
+                    () -> idempotentRequests.execute("key", "increment:1:10", () -> productDTO));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void whenOperationFailsUnexpectedlyBeforeCommittingThenTheRetryRunsIt() throws Exception {
+        assertThrows(IllegalStateException.class, () -> idempotentRequests.execute("key", "increment:1:10", () -> {
+            throw new IllegalStateException("Connection is not available, request timed out");
+        }));
+
+        ProductDTO response = idempotentRequests.execute("key", "increment:1:10", () -> productDTO);
+
+        assertThat(response, is(productDTO));
+    }
+
+    @Test
+    void whenOperationFailsUnexpectedlyAfterCommittingThenTheRetryDoesNotRunIt() {
+        properties.setInFlightTimeout(Duration.ofMillis(50));
+        AtomicInteger executions = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> idempotentRequests.execute("key", "increment:1:10", () -> {
+            executions.incrementAndGet();
+            IdempotentRequests.movementCommitted();
+            throw new IllegalStateException("after-commit callback failed");
+        }));
+
+        assertThrows(IdempotencyKeyInProgressException.class, () -> idempotentRequests.execute("key", "increment:1:10", () -> {
+            executions.incrementAndGet();
+            return productDTO;
+        }));
+        assertThat(executions.get(), is(1));
+    }
+
+    @Test
+    void whenMovementTransactionRollsBackThenTheRetryRunsIt() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThrows(IllegalStateException.class, () -> idempotentRequests.execute("key", "increment:1:10", () -> {
+                IdempotentRequests.movementCommittedOnCommit();
+                TransactionSynchronizationManager.getSynchronizations()
+                        .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+                throw new IllegalStateException("Lock timeout");
+            }));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        ProductDTO response = idempotentRequests.execute("key", "increment:1:10", () -> productDTO);
+
+        assertThat(response, is(productDTO));
+    }
+
+    @Test
+    void whenTheResponseCanNotBeStoredThenTheRetryDoesNotMoveTheStockAgain() {
+        properties.setInFlightTimeout(Duration.ofMillis(50));
+        InMemoryIdempotencyStore idempotencyStore = Mockito.spy(new InMemoryIdempotencyStore(properties));
+        doThrow(new IllegalStateException("store unavailable")).when(idempotencyStore).complete(any(), any());
+        idempotentRequests = new IdempotentRequests(idempotencyStore, properties);
+        AtomicInteger executions = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> idempotentRequests.execute("key", "increment:1:10", () -> {
+            executions.incrementAndGet();
+            return productDTO;
+        }));
+
+        assertThrows(IdempotencyKeyInProgressException.class, () -> idempotentRequests.execute("key", "increment:1:10", () -> {
+            executions.incrementAndGet();
+            return productDTO;
+        }));
+        assertThat(executions.get(), is(1));
+    }
+
+    @Test
+    void whenTheKeyCanNeitherBeFoundNorClaimedThenTheRequestIsRejectedAtTheDeadline() {
+        properties.setInFlightTimeout(Duration.ofMillis(50));
+        InMemoryIdempotencyStore idempotencyStore = Mockito.spy(new InMemoryIdempotencyStore(properties));
+        doReturn(false).when(idempotencyStore).claim(any(), any());
+        idempotentRequests = new IdempotentRequests(idempotencyStore, properties);
+
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> idempotentRequests.execute("key", "increment:1:10", () -> productDTO));
+    }
+}
@@ -0,0 +1,77 @@
+package one.digitalinnovation.productstock.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.productstock.builder.ProductDTOBuilder;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.enums.ProductType;
+import one.digitalinnovation.productstock.exception.ProductNotFoundException;
+import one.digitalinnovation.productstock.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+public class ProductServiceMetricsTest {
+    private static final long INVALID_PRODUCT_ID = 1L;
+
+    private MeterRegistry meterRegistry;
+
+    private ProductService productServiceTarget;
+
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productServiceTarget = Mockito.mock(ProductService.class);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(productServiceTarget);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new ProductServiceMetrics(meterRegistry));
+        productService = proxyFactory.getProxy();
+    }
+
+    @Test
+    void whenOperationSucceedsThenItIsTimedWithSuccessOutcome() throws ProductNotFoundException {
+        ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        when(productServiceTarget.findByName(expectedProductDTO.getName())).thenReturn(expectedProductDTO);
+
+        productService.findByName(expectedProductDTO.getName());
+
+        assertThat(timerCount("findByName", "success"), is(equalTo(1L)));
+    }
+
+    @Test
+    void whenOperationFailsThenItIsTimedWithExceptionOutcome() throws ProductNotFoundException {
+        when(productServiceTarget.findById(INVALID_PRODUCT_ID)).thenThrow(new ProductNotFoundException(INVALID_PRODUCT_ID));
+
+        assertThrows(ProductNotFoundException.class, () -> productService.findById(INVALID_PRODUCT_ID));
+
+        assertThat(timerCount("findById", "not-found"), is(equalTo(1L)));
+    }
+
+    @Test
+    void whenStockIsMovedThenUnitsAreCountedPerTypeAndDirection() {
+        ProductStockMetrics productStockMetrics = new ProductStockMetrics(meterRegistry);
+
+        productStockMetrics.recordMovement(ProductType.RACAO, 5);
+        productStockMetrics.recordMovement(ProductType.RACAO, -2);
+
+        assertThat(meterRegistry.counter(ProductStockMetrics.UNITS_METRIC, "type", "RACAO", "direction", "in").count(), is(equalTo(5.0)));
+        assertThat(meterRegistry.counter(ProductStockMetrics.UNITS_METRIC, "type", "RACAO", "direction", "out").count(), is(equalTo(2.0)));
+    }
+
+    private long timerCount(String operation, String outcome) {
+        return meterRegistry.get(ProductServiceMetrics.TIMER)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+}
@@ -0,0 +1,137 @@
+package one.digitalinnovation.productstock.search;
+
+import one.digitalinnovation.productstock.builder.ProductDTOBuilder;
+import one.digitalinnovation.productstock.dto.ProductSearchHitDTO;
+import one.digitalinnovation.productstock.entity.Product;
+import one.digitalinnovation.productstock.mapper.ProductMapper;
+import one.digitalinnovation.productstock.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ProductSearchIndexTest {
+
+    private ProductRepository productRepository;
+
+    private EntityManager entityManager;
+
+    private ProductSearchIndex productSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = Mockito.mock(ProductRepository.class);
+        entityManager = Mockito.mock(EntityManager.class);
+        productSearchIndex = new ProductSearchIndex(productRepository, entityManager,
+                new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)));
+        productSearchIndex.add(ProductDTOBuilder.builder().serial(1L).name("Golden Fórmula").brand("PremieR").build().toProductDTO());
+        productSearchIndex.add(ProductDTOBuilder.builder().serial(2L).name("Gold").brand("Magnus").build().toProductDTO());
+        productSearchIndex.add(ProductDTOBuilder.builder().serial(3L).name("Todo Dia").brand("Golden").build().toProductDTO());
+        productSearchIndex.add(ProductDTOBuilder.builder().serial(4L).name("Areia Sanitária").brand("Pipicat").build().toProductDTO());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void whenPrefixIsSearchedThenCloserAndNameMatchesRankFirst() {
+        List<ProductSearchHitDTO> hits = productSearchIndex.search("gol", 10);
+
+        assertThat(serials(hits), contains(2L, 1L, 3L));
+    }
+
+    @Test
+    void whenEveryTermIsSearchedThenOnlyProductsMatchingAllOfThemAreReturned() {
+        List<ProductSearchHitDTO> hits = productSearchIndex.search("golden form", 10);
+
+        assertThat(serials(hits), contains(1L));
+    }
+
+    @Test
+    void whenQueryHasAccentsCaseOrTyposThenProductIsStillFound() {
+        assertThat(serials(productSearchIndex.search("SANITARIA", 10)), contains(4L));
+        assertThat(serials(productSearchIndex.search("areai", 10)), contains(4L));
+        assertThat(serials(productSearchIndex.search("pipicta", 10)), contains(4L));
+    }
+
+    @Test
+    void whenLimitIsGivenThenOnlyTheBestHitsAreReturned() {
+        List<ProductSearchHitDTO> hits = productSearchIndex.search("gol", 1);
+
+        assertThat(serials(hits), contains(2L));
+    }
+
+    @Test
+    void whenBlankQueryIsSearchedThenNothingIsReturned() {
+        assertThat(productSearchIndex.search(" - ", 10), is(empty()));
+    }
+
+    @Test
+    void whenProductIsRemovedThenItIsNoLongerFound() {
+        productSearchIndex.remove(4L);
+
+        assertThat(productSearchIndex.search("areia", 10), is(empty()));
+        assertThat(productSearchIndex.search("areai", 10), is(empty()));
+        assertThat(productSearchIndex.size(), is(3));
+    }
+
+    @Test
+    void whenProductIsAddedInsideATransactionThenItIsIndexedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        productSearchIndex.add(ProductDTOBuilder.builder().serial(5L).name("Petisco").build().toProductDTO());
+
+        assertThat(productSearchIndex.search("petisco", 10), is(empty()));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(serials(productSearchIndex.search("petisco", 10)), contains(5L));
+    }
+
+    @Test
+    void whenIndexIsBuiltThenEveryStoredProductIsIndexedAndDetached() {
+        Product product = ProductMapper.INSTANCE.toModel(ProductDTOBuilder.builder().serial(6L).name("Ração Premium").build().toProductDTO());
+        when(productRepository.streamAllOrderedBySerial()).thenReturn(Stream.of(product));
+
+        productSearchIndex.build();
+
+        assertThat(serials(productSearchIndex.search("racao", 10)), contains(6L));
+        verify(entityManager).detach(product);
+    }
+
+    @Test
+    void whenProductIsRemovedWhileTheIndexIsBuiltThenItIsNotIndexed() {
+        Product product = ProductMapper.INSTANCE.toModel(ProductDTOBuilder.builder().serial(6L).name("Ração Premium").build().toProductDTO());
+        Product removedProduct = ProductMapper.INSTANCE.toModel(ProductDTOBuilder.builder().serial(7L).name("Ração Light").build().toProductDTO());
+        when(productRepository.streamAllOrderedBySerial()).thenReturn(Stream.of(product, removedProduct)
+                .peek(streamed -> {
+                    if (streamed == product) {
+                        productSearchIndex.remove(removedProduct.getSerial());
+                    }
+                }));
+
+        productSearchIndex.build();
+
+        assertThat(serials(productSearchIndex.search("racao", 10)), contains(6L));
+    }
+
+    private static List<Long> serials(List<ProductSearchHitDTO> hits) {
+        return hits.stream().map(ProductSearchHitDTO::getSerial).collect(Collectors.toList());
+    }
+}
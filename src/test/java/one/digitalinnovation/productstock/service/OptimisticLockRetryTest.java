@@ -0,0 +1,63 @@
+package one.digitalinnovation.productstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.productstock.config.StockRetryProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OptimisticLockRetryTest {
+
+    private MeterRegistry meterRegistry;
+
+    private OptimisticLockRetry optimisticLockRetry;
+
+    @BeforeEach
+    void setUp() {
+        StockRetryProperties properties = new StockRetryProperties();
+        properties.setMaxAttempts(3);
+        properties.setInitialBackoff(Duration.ofMillis(1));
+        properties.setMaxBackoff(Duration.ofMillis(2));
+        meterRegistry = new SimpleMeterRegistry();
+        optimisticLockRetry = new OptimisticLockRetry(properties, meterRegistry);
+    }
+
+    @Test
+    void whenActionConflictsOnceThenItIsRetriedAndConflictIsCounted() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = optimisticLockRetry.execute("test", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new OptimisticLockingFailureException("conflict");
+            }
+            return "done";
+        });
+
+        assertThat(result, is(equalTo("done")));
+        assertThat(attempts.get(), is(equalTo(2)));
+        assertThat(meterRegistry.counter(OptimisticLockRetry.CONFLICTS_METRIC, "operation", "test").count(), is(equalTo(1.0)));
+        assertThat(meterRegistry.counter(OptimisticLockRetry.RETRIES_METRIC, "operation", "test").count(), is(equalTo(1.0)));
+    }
+
+    @Test
+    void whenActionKeepsConflictingThenItGivesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> optimisticLockRetry.execute("test", () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflict");
+        }));
+
+        assertThat(attempts.get(), is(equalTo(3)));
+        assertThat(meterRegistry.counter(OptimisticLockRetry.EXHAUSTED_METRIC, "operation", "test").count(), is(equalTo(1.0)));
+    }
+}
@@ -0,0 +1,125 @@
+package one.digitalinnovation.productstock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.productstock.builder.ProductDTOBuilder;
+import one.digitalinnovation.productstock.cache.ProductVersions;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.dto.ProductImportResultDTO;
+import one.digitalinnovation.productstock.entity.Product;
+import one.digitalinnovation.productstock.exception.ProductImportException;
+import one.digitalinnovation.productstock.repository.ProductRepository;
+import one.digitalinnovation.productstock.search.ProductSearchIndex;
+import one.digitalinnovation.productstock.utils.JsonConvertionUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductImportServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductVersions productVersions;
+
+    private ProductImportService productImportService;
+
+    @BeforeEach
+    void setUp() {
+        productImportService = new ProductImportService(productRepository,
+                entityManager,
+                new TransactionTemplate(transactionManager),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper(),
+                productSearchIndex,
+                productVersions);
+    }
+
+    @Test
+    void whenJsonArrayIsImportedThenNewProductsArePersisted() throws IOException, ProductImportException {
+        //given
+        ProductDTO newProductDTO = ProductDTOBuilder.builder().serial(1L).name("Todo Dia").build().toProductDTO();
+        ProductDTO duplicatedProductDTO = ProductDTOBuilder.builder().serial(2L).name("Golden").build().toProductDTO();
+        ProductDTO repeatedProductDTO = ProductDTOBuilder.builder().serial(3L).name("Todo Dia").build().toProductDTO();
+        ProductDTO invalidProductDTO = ProductDTOBuilder.builder().serial(4L).brand(null).build().toProductDTO();
+        InputStream payload = asInputStream(JsonConvertionUtils.asJsonString(
+                Arrays.asList(newProductDTO, duplicatedProductDTO, repeatedProductDTO, invalidProductDTO)));
+
+        //when
+        when(productRepository.findExistingNames(anyCollection())).thenReturn(Collections.singleton("Golden"));
+        when(productRepository.findExistingSerials(anyCollection())).thenReturn(Collections.emptySet());
+
+        //then
+        ProductImportResultDTO result = productImportService.importJson(payload);
+
+        assertThat(result.getImported(), is(equalTo(1L)));
+        assertThat(result.getDuplicated(), is(equalTo(2L)));
+        assertThat(result.getInvalid(), is(equalTo(1L)));
+        verify(entityManager, times(1)).persist(any(Product.class));
+        verify(entityManager, times(1)).flush();
+    }
+
+    @Test
+    void whenCsvIsImportedThenProductsArePersistedInChunks() throws IOException, ProductImportException {
+        //given
+        StringBuilder csv = new StringBuilder("serial,name,brand,quantity,max,purchasePrice,type\n");
+        int totalProducts = ProductImportService.CHUNK_SIZE + 1;
+        for (int serial = 1; serial <= totalProducts; serial++) {
+            csv.append(serial).append(",Product ").append(serial).append(",Magnus,10,50,50.0,RACAO\n");
+        }
+
+        //when
+        when(productRepository.findExistingNames(anyCollection())).thenReturn(Collections.emptySet());
+        when(productRepository.findExistingSerials(anyCollection())).thenReturn(Collections.emptySet());
+
+        //then
+        ProductImportResultDTO result = productImportService.importCsv(asInputStream(csv.toString()));
+
+        assertThat(result.getImported(), is(equalTo((long) totalProducts)));
+        verify(entityManager, times(totalProducts)).persist(any(Product.class));
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void whenMalformedPayloadIsImportedThenAnExceptionShouldBeThrown() {
+        InputStream payload = asInputStream("[{\"serial\": 1, \"name\": ");
+
+        assertThrows(ProductImportException.class, () -> productImportService.importJson(payload));
+    }
+
+    private InputStream asInputStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,23 +1,57 @@
 package one.digitalinnovation.productstock.service;
 
 import one.digitalinnovation.productstock.builder.ProductDTOBuilder;
+import one.digitalinnovation.productstock.cache.ProductCache;
+import one.digitalinnovation.productstock.cache.ProductVersions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.productstock.config.StockRetryProperties;
 import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.dto.ProductFilterDTO;
+import one.digitalinnovation.productstock.dto.ProductPageDTO;
+import one.digitalinnovation.productstock.dto.StockAdjustmentDTO;
+import one.digitalinnovation.productstock.dto.StockAdjustmentResultDTO;
 import one.digitalinnovation.productstock.entity.Product;
+import one.digitalinnovation.productstock.event.StockEventOutbox;
+import one.digitalinnovation.productstock.enums.ProductType;
 import one.digitalinnovation.productstock.exception.ProductAlreadyRegisteredException;
 import one.digitalinnovation.productstock.exception.ProductNotFoundException;
+import one.digitalinnovation.productstock.exception.ProductStockConflictException;
 import one.digitalinnovation.productstock.exception.ProductStockExceededException;
 import one.digitalinnovation.productstock.exception.ProductStockException;
 import one.digitalinnovation.productstock.mapper.ProductMapper;
+import one.digitalinnovation.productstock.metrics.ProductStockMetrics;
 import one.digitalinnovation.productstock.repository.ProductRepository;
+import one.digitalinnovation.productstock.search.ProductSearchIndex;
+import one.digitalinnovation.productstock.stock.StockDeltaCombiner;
+import one.digitalinnovation.productstock.stock.StockEngine;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -32,21 +66,55 @@ public class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private StockEngine stockEngine;
+
+    @Mock
+    private StockDeltaCombiner stockDeltaCombiner;
+
+    @Mock
+    private ProductStockMetrics productStockMetrics;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private StockEventOutbox stockEventOutbox;
+
+    @Spy
+    private OptimisticLockRetry optimisticLockRetry = new OptimisticLockRetry(new StockRetryProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+
+    @Spy
+    private ProductVersions productVersions = new ProductVersions();
+
+    @Spy
+    private ProductCache productCache = new ProductCache(new ConcurrentMapCacheManager(ProductCache.BY_NAME, ProductCache.BY_SERIAL), productVersions);
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class));
+
     private ProductMapper productMapper = ProductMapper.INSTANCE;
 
     @InjectMocks
     private ProductService productService;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(stockEngine.withCurrentQuantity(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
     @Test
     void whenProductInformatedThenItShouldBeCreated() throws ProductAlreadyRegisteredException {
         //given
         ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
         Product expectedSavedProduct = productMapper.toModel(expectedProductDTO);
 
-        //when
-        when(productRepository.findByName(expectedProductDTO.getName())).thenReturn(Optional.empty());
-        when(productRepository.save(expectedSavedProduct)).thenReturn(expectedSavedProduct);
-
         //then
         ProductDTO createdProductDTO = productService.createProduct(expectedProductDTO);
 
@@ -57,26 +125,49 @@ public class ProductServiceTest {
 
         assertEquals(expectedProductDTO.getSerial(), createdProductDTO.getSerial());
         assertEquals(expectedProductDTO.getName(),createdProductDTO.getName());
+        verify(entityManager, times(1)).persist(expectedSavedProduct);
+        verify(entityManager, times(1)).flush();
+        verify(productRepository, never()).findByName(expectedProductDTO.getName());
+        verify(productCache, times(1)).evict(createdProductDTO);
+        verify(productSearchIndex, times(1)).add(createdProductDTO);
     }
 
     @Test
     void whenAlreadyRegistredProductInformedThenAnExceptionShouldBeThrown(){
         ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
-        Product duplicatedProduct = productMapper.toModel(expectedProductDTO);
 
-        when(productRepository.findByName(expectedProductDTO.getName())).thenReturn(Optional.of(duplicatedProduct));
+        doThrow(constraintViolation("PUBLIC.UX_PRODUCT_NAME ON PUBLIC.PRODUCT(NAME) VALUES ('Todo Dia', 1)"))
+                .when(entityManager).flush();
+
+        ProductAlreadyRegisteredException exception = assertThrows(ProductAlreadyRegisteredException.class,
+                () -> productService.createProduct(expectedProductDTO));
+        assertThat(exception.getMessage(), containsString(expectedProductDTO.getName()));
+        verifyNoInteractions(productCache);
+    }
+
+    @Test
+    void whenAlreadyRegistredSerialInformedThenAnExceptionShouldBeThrown(){
+        ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        doThrow(constraintViolation(null)).when(entityManager).flush();
 
-        assertThrows(ProductAlreadyRegisteredException.class, () -> productService.createProduct(expectedProductDTO));
+        ProductAlreadyRegisteredException exception = assertThrows(ProductAlreadyRegisteredException.class,
+                () -> productService.createProduct(expectedProductDTO));
+        assertThat(exception.getMessage(), containsString("serial " + expectedProductDTO.getSerial()));
+    }
+
+    private PersistenceException constraintViolation(String constraintName) {
+        SQLException sqlException = new SQLException("Unique index or primary key violation: \"PRIMARY KEY ON PUBLIC.PRODUCT(SERIAL)\"");
+        return new PersistenceException(new ConstraintViolationException("could not execute batch", sqlException, constraintName));
     }
 
     @Test
     void whenValidProductNameIsGivenThenReturnAProduct() throws ProductNotFoundException {
         //given
         ProductDTO expectedFoundProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
-        Product expectedFoundProduct = productMapper.toModel(expectedFoundProductDTO);
 
         //when
-        when(productRepository.findByName(expectedFoundProduct.getName())).thenReturn(Optional.of(expectedFoundProduct));
+        when(productRepository.findDTOByName(expectedFoundProductDTO.getName())).thenReturn(Optional.of(expectedFoundProductDTO));
 
         //then
         ProductDTO foundProductDTO = productService.findByName(expectedFoundProductDTO.getName());
@@ -85,13 +176,39 @@ public class ProductServiceTest {
 
     }
 
+    @Test
+    void whenAnotherProductChangesDuringASerialLookupThenLaterLookupsStillShareIt() throws Exception {
+        //given
+        ProductDTO expectedFoundProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productRepository.findDTOBySerial(expectedFoundProductDTO.getSerial())).thenAnswer(invocation -> {
+            queried.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(expectedFoundProductDTO);
+        }).thenReturn(Optional.of(expectedFoundProductDTO));
+
+        //when
+        CompletableFuture<ProductDTO> first = CompletableFuture.supplyAsync(() -> findById(expectedFoundProductDTO.getSerial()));
+        assertThat(queried.await(5, TimeUnit.SECONDS), is(true));
+        productVersions.changed("Other product", expectedFoundProductDTO.getSerial() + 1);
+        CompletableFuture<ProductDTO> second = CompletableFuture.supplyAsync(() -> findById(expectedFoundProductDTO.getSerial()));
+
+        //then
+        assertThrows(TimeoutException.class, () -> second.get(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS), is(equalTo(expectedFoundProductDTO)));
+        assertThat(second.get(5, TimeUnit.SECONDS), is(equalTo(expectedFoundProductDTO)));
+        verify(productRepository, times(1)).findDTOBySerial(expectedFoundProductDTO.getSerial());
+    }
+
     @Test
     void whenNotRegisteredProductNameIsGivenThenThrowAnException() {
         //given
         ProductDTO expectedFoundProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
 
         //when
-        when(productRepository.findByName(expectedFoundProductDTO.getName())).thenReturn(Optional.empty());
+        when(productRepository.findDTOByName(expectedFoundProductDTO.getName())).thenReturn(Optional.empty());
 
         //then
         assertThrows(ProductNotFoundException.class, () -> productService.findByName(expectedFoundProductDTO.getName()));
@@ -101,10 +218,9 @@ public class ProductServiceTest {
     void whenListProductIsCalledThenReturnAListOfProducts() {
         //given
         ProductDTO expectedFoundProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
-        Product expectedFoundProduct = productMapper.toModel(expectedFoundProductDTO);
 
         //when
-        when(productRepository.findAll()).thenReturn(Collections.singletonList(expectedFoundProduct));
+        when(productRepository.findAllDTOs()).thenReturn(Collections.singletonList(expectedFoundProductDTO));
 
         //then
         List<ProductDTO> foundListProductDTO = productService.listAll();
@@ -116,7 +232,7 @@ public class ProductServiceTest {
     @Test
     void whenListproductIsCalledThenReturnAnEmptyListOfProduct() {
         //when
-        when(productRepository.findAll()).thenReturn(Collections.EMPTY_LIST);
+        when(productRepository.findAllDTOs()).thenReturn(Collections.EMPTY_LIST);
 
         //then
         List<ProductDTO> foundListProductDTO = productService.listAll();
@@ -124,6 +240,73 @@ public class ProductServiceTest {
         assertThat(foundListProductDTO, is(empty()));
     }
 
+    @Test
+    void whenListPageIsCalledWithMoreProductsThanLimitThenReturnNextCursor() {
+        //given
+        ProductDTO firstProductDTO = ProductDTOBuilder.builder().serial(1L).build().toProductDTO();
+        ProductDTO secondProductDTO = ProductDTOBuilder.builder().serial(2L).build().toProductDTO();
+        List<ProductDTO> foundProducts = Arrays.asList(firstProductDTO, secondProductDTO);
+
+        //when
+        when(productRepository.findDTOsOrderedBySerial(Mockito.any())).thenReturn(foundProducts);
+
+        //then
+        ProductPageDTO foundPage = productService.listPage(null, 1);
+
+        assertThat(foundPage.getContent(), contains(firstProductDTO));
+        assertThat(foundPage.getNextCursor(), is(equalTo(firstProductDTO.getSerial())));
+    }
+
+    @Test
+    void whenListPageIsCalledWithCursorOnLastPageThenReturnNoNextCursor() {
+        //given
+        ProductDTO expectedFoundProductDTO = ProductDTOBuilder.builder().serial(2L).build().toProductDTO();
+
+        //when
+        when(productRepository.findDTOsBySerialGreaterThan(Mockito.eq(1L), Mockito.any()))
+                .thenReturn(Collections.singletonList(expectedFoundProductDTO));
+
+        //then
+        ProductPageDTO foundPage = productService.listPage(1L, 10);
+
+        assertThat(foundPage.getContent(), contains(expectedFoundProductDTO));
+        assertThat(foundPage.getNextCursor(), is(nullValue()));
+    }
+
+    @Test
+    void whenSearchIsCalledWithFilterThenMatchingPageIsReturned() {
+        //given
+        ProductDTO expectedFoundProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        ProductFilterDTO filter = ProductFilterDTO.builder().type(ProductType.RACAO).lowStockBelow(20).build();
+
+        //when
+        when(productRepository.findBy(Mockito.<Specification<Product>>any(), Mockito.any()))
+                .thenReturn(Collections.singletonList(productMapper.toModel(expectedFoundProductDTO)));
+
+        //then
+        ProductPageDTO foundPage = productService.search(filter, null, 10);
+
+        assertThat(foundPage.getContent(), contains(expectedFoundProductDTO));
+        assertThat(foundPage.getNextCursor(), is(nullValue()));
+    }
+
+    @Test
+    void whenExportIsCalledThenEveryProductIsStreamedAndDetached() {
+        //given
+        ProductDTO expectedFoundProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        Product expectedFoundProduct = productMapper.toModel(expectedFoundProductDTO);
+        List<ProductDTO> exportedProducts = new ArrayList<>();
+
+        //when
+        when(productRepository.streamAllOrderedBySerial()).thenReturn(Stream.of(expectedFoundProduct));
+
+        //then
+        productService.exportAll(exportedProducts::add);
+
+        assertThat(exportedProducts, contains(expectedFoundProductDTO));
+        verify(entityManager, times(1)).detach(expectedFoundProduct);
+    }
+
     @Test
     void whenExclusionIsCalledWithValidSerialThenAProductShouldBeDeleted() throws ProductNotFoundException {
         //given
@@ -139,6 +322,8 @@ public class ProductServiceTest {
 
         verify(productRepository, times(1)).findById(expectedDeletedProductDTO.getSerial());
         verify(productRepository, times(1)).deleteById(expectedDeletedProduct.getSerial());
+        verify(productCache, times(1)).remove(expectedDeletedProduct.getName(), expectedDeletedProduct.getSerial());
+        verify(productSearchIndex, times(1)).remove(expectedDeletedProduct.getSerial());
     }
 
     @Test
@@ -147,34 +332,107 @@ public class ProductServiceTest {
         ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
         Product expectedProduct = productMapper.toModel(expectedProductDTO);
 
-        //when
-        when(productRepository.findById(expectedProductDTO.getSerial())).thenReturn(Optional.of(expectedProduct));
-        when(productRepository.save(expectedProduct)).thenReturn(expectedProduct);
-
         int quantityToIncrement = 5;
         int expectedQuantityAfterDecrement = expectedProductDTO.getQuantity() + quantityToIncrement;
+        expectedProduct.setQuantity(expectedQuantityAfterDecrement);
+
+        //when
+        when(productRepository.incrementQuantity(expectedProductDTO.getSerial(), quantityToIncrement)).thenReturn(1);
+        when(productRepository.findById(expectedProductDTO.getSerial())).thenReturn(Optional.of(expectedProduct));
 
         //then
         ProductDTO incrementedProductDTO = productService.increment(expectedProductDTO.getSerial(), quantityToIncrement);
 
         assertThat(expectedQuantityAfterDecrement, equalTo(incrementedProductDTO.getQuantity()));
         assertThat(expectedQuantityAfterDecrement, lessThan(expectedProductDTO.getMax()));
+        verify(productRepository, never()).save(Mockito.any(Product.class));
+        verify(productCache, times(1)).evict(incrementedProductDTO);
+        verify(productStockMetrics, times(1)).recordMovement(expectedProductDTO.getType(), quantityToIncrement);
     }
 
     @Test
-    void whenDecrementIsCalledThenDecrementProductStock() throws ProductNotFoundException, ProductStockException {
+    void whenIncrementIsGreatherThanMaxThenThrowException() {
         ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
         Product expectedProduct = productMapper.toModel(expectedProductDTO);
 
+        int quantityToIncrement = 80;
+        when(productRepository.incrementQuantity(expectedProductDTO.getSerial(), quantityToIncrement)).thenReturn(0);
         when(productRepository.findById(expectedProductDTO.getSerial())).thenReturn(Optional.of(expectedProduct));
-        when(productRepository.save(expectedProduct)).thenReturn(expectedProduct);
+
+        assertThrows(ProductStockExceededException.class, () -> productService.increment(expectedProductDTO.getSerial(), quantityToIncrement));
+    }
+
+    @Test
+    void whenIncrementIsCalledWithInvalidSerialThenThrowException() {
+        int quantityToIncrement = 10;
+
+        when(productRepository.incrementQuantity(INVALID_PRODUCT_ID, quantityToIncrement)).thenReturn(0);
+        when(productRepository.findById(INVALID_PRODUCT_ID)).thenReturn(Optional.empty());
+
+        assertThrows(ProductNotFoundException.class, () -> productService.increment(INVALID_PRODUCT_ID, quantityToIncrement));
+    }
+
+    @Test
+    void whenDecrementIsCalledThenDecrementProductStock() throws ProductNotFoundException, ProductStockException {
+        ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        Product expectedProduct = productMapper.toModel(expectedProductDTO);
 
         int quantityToDecrement = 5;
         int expectedQuantityAfterDecrement = expectedProductDTO.getQuantity() - quantityToDecrement;
+        expectedProduct.setQuantity(expectedQuantityAfterDecrement);
+
+        when(productRepository.decrementQuantity(expectedProductDTO.getSerial(), quantityToDecrement)).thenReturn(1);
+        when(productRepository.findById(expectedProductDTO.getSerial())).thenReturn(Optional.of(expectedProduct));
+
         ProductDTO incrementedProductDTO = productService.decrement(expectedProductDTO.getSerial(), quantityToDecrement);
 
         assertThat(expectedQuantityAfterDecrement, equalTo(incrementedProductDTO.getQuantity()));
         assertThat(expectedQuantityAfterDecrement, greaterThanOrEqualTo(0));
+        verify(stockEventOutbox, times(1)).record(incrementedProductDTO, -quantityToDecrement);
+    }
+
+    @Test
+    void whenStockEngineIsEnabledThenDecrementSkipsTheDatabase() throws ProductNotFoundException, ProductStockException {
+        ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        int quantityToDecrement = 5;
+        expectedProductDTO.setQuantity(expectedProductDTO.getQuantity() - quantityToDecrement);
+
+        when(stockEngine.isEnabled()).thenReturn(true);
+        when(stockEngine.decrement(expectedProductDTO.getSerial(), quantityToDecrement)).thenReturn(expectedProductDTO);
+
+        ProductDTO decrementedProductDTO = productService.decrement(expectedProductDTO.getSerial(), quantityToDecrement);
+
+        assertThat(decrementedProductDTO, is(equalTo(expectedProductDTO)));
+        verify(productCache).evict(expectedProductDTO);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void whenWriteCombiningIsEnabledThenDecrementWaitsForTheCombinedWrite() throws ProductNotFoundException, ProductStockException {
+        ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        int quantityToDecrement = 5;
+        expectedProductDTO.setQuantity(expectedProductDTO.getQuantity() - quantityToDecrement);
+
+        when(stockDeltaCombiner.isEnabled()).thenReturn(true);
+        when(stockDeltaCombiner.submit(expectedProductDTO.getSerial(), -quantityToDecrement))
+                .thenReturn(CompletableFuture.completedFuture(expectedProductDTO));
+
+        ProductDTO decrementedProductDTO = productService.decrement(expectedProductDTO.getSerial(), quantityToDecrement);
+
+        assertThat(decrementedProductDTO, is(equalTo(expectedProductDTO)));
+        verifyNoInteractions(productRepository, transactionTemplate);
+    }
+
+    @Test
+    void whenCombinedIncrementIsRejectedThenThrowItsException() {
+        ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        int quantityToIncrement = 80;
+
+        when(stockDeltaCombiner.isEnabled()).thenReturn(true);
+        when(stockDeltaCombiner.submit(expectedProductDTO.getSerial(), quantityToIncrement))
+                .thenReturn(CompletableFuture.failedFuture(new ProductStockExceededException(expectedProductDTO.getSerial(), quantityToIncrement)));
+
+        assertThrows(ProductStockExceededException.class, () -> productService.increment(expectedProductDTO.getSerial(), quantityToIncrement));
     }
 
     @Test
@@ -182,11 +440,13 @@ public class ProductServiceTest {
         ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
         Product expectedProduct = productMapper.toModel(expectedProductDTO);
 
-        when(productRepository.findById(expectedProductDTO.getSerial())).thenReturn(Optional.of(expectedProduct));
-        when(productRepository.save(expectedProduct)).thenReturn(expectedProduct);
-
         int quantityToDecrement = 10;
         int expectedQuantityAfterDecrement = expectedProduct.getQuantity() - quantityToDecrement;
+        expectedProduct.setQuantity(expectedQuantityAfterDecrement);
+
+        when(productRepository.decrementQuantity(expectedProductDTO.getSerial(), quantityToDecrement)).thenReturn(1);
+        when(productRepository.findById(expectedProductDTO.getSerial())).thenReturn(Optional.of(expectedProduct));
+
         ProductDTO incrementedProductDTO = productService.decrement(expectedProductDTO.getSerial(), quantityToDecrement);
 
         assertThat(expectedQuantityAfterDecrement, equalTo(0));
@@ -198,18 +458,88 @@ public class ProductServiceTest {
         ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
         Product expectedProduct = productMapper.toModel(expectedProductDTO);
 
+        int quantityToDecrement = 80;
+        when(productRepository.decrementQuantity(expectedProductDTO.getSerial(), quantityToDecrement)).thenReturn(0);
         when(productRepository.findById(expectedProductDTO.getSerial())).thenReturn(Optional.of(expectedProduct));
 
-        int quantityToDecrement = 80;
         assertThrows(ProductStockException.class, () -> productService.decrement(expectedProductDTO.getSerial(), quantityToDecrement));
+        verifyNoInteractions(productCache);
     }
 
     @Test
     void whenDecrementIsCalledWithInvalidSerialThenThrowException() {
         int quantityToDecrement = 10;
 
+        when(productRepository.decrementQuantity(INVALID_PRODUCT_ID, quantityToDecrement)).thenReturn(0);
         when(productRepository.findById(INVALID_PRODUCT_ID)).thenReturn(Optional.empty());
 
         assertThrows(ProductNotFoundException.class, () -> productService.decrement(INVALID_PRODUCT_ID, quantityToDecrement));
     }
+
+    @Test
+    void whenStockIsAdjustedInBatchThenEachAdjustmentHasItsOwnResult() throws ProductStockConflictException {
+        //given
+        ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        Product expectedProduct = productMapper.toModel(expectedProductDTO);
+        List<StockAdjustmentDTO> adjustments = Arrays.asList(
+                new StockAdjustmentDTO(expectedProductDTO.getSerial(), 30),
+                new StockAdjustmentDTO(expectedProductDTO.getSerial(), 20),
+                new StockAdjustmentDTO(expectedProductDTO.getSerial(), -45),
+                new StockAdjustmentDTO(INVALID_PRODUCT_ID + 1, 5));
+
+        //when
+        when(productRepository.findAllById(Mockito.anyIterable()))
+                .thenReturn(Collections.singletonList(expectedProduct));
+
+        //then
+        List<StockAdjustmentResultDTO> results = productService.adjustStock(adjustments);
+
+        assertThat(results.get(0).isSuccess(), is(true));
+        assertThat(results.get(0).getQuantity(), is(equalTo(40)));
+        assertThat(results.get(1).isSuccess(), is(false));
+        assertThat(results.get(2).isSuccess(), is(false));
+        assertThat(results.get(3).isSuccess(), is(false));
+        assertThat(expectedProduct.getQuantity(), is(equalTo(40)));
+    }
+
+    @Test
+    void whenStockBatchConflictsThenItIsRetriedInANewTransaction() throws ProductStockConflictException {
+        //given
+        ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        List<StockAdjustmentDTO> adjustments = Collections.singletonList(new StockAdjustmentDTO(expectedProductDTO.getSerial(), 5));
+
+        //when
+        when(productRepository.findAllById(Mockito.anyIterable()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, expectedProductDTO.getSerial()))
+                .thenReturn(Collections.singletonList(productMapper.toModel(expectedProductDTO)));
+
+        //then
+        List<StockAdjustmentResultDTO> results = productService.adjustStock(adjustments);
+
+        assertThat(results.get(0).getQuantity(), is(equalTo(expectedProductDTO.getQuantity() + 5)));
+        verify(transactionTemplate, times(2)).execute(Mockito.any());
+    }
+
+    @Test
+    void whenStockBatchKeepsConflictingThenAnExceptionShouldBeThrown() {
+        //given
+        ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        List<StockAdjustmentDTO> adjustments = Collections.singletonList(new StockAdjustmentDTO(expectedProductDTO.getSerial(), 5));
+
+        //when
+        when(productRepository.findAllById(Mockito.anyIterable()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, expectedProductDTO.getSerial()));
+
+        //then
+        assertThrows(ProductStockConflictException.class, () -> productService.adjustStock(adjustments));
+        verify(productRepository, times(new StockRetryProperties().getMaxAttempts())).findAllById(Mockito.anyIterable());
+    }
+
+    private ProductDTO findById(Long serial) {
+        try {
+            return productService.findById(serial);
+        } catch (ProductNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -0,0 +1,89 @@
+package one.digitalinnovation.productstock.service;
+
+import one.digitalinnovation.productstock.builder.ProductDTOBuilder;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.entity.Product;
+import one.digitalinnovation.productstock.exception.ProductAlreadyRegisteredException;
+import one.digitalinnovation.productstock.exception.ProductNotFoundException;
+import one.digitalinnovation.productstock.exception.ProductStockExceededException;
+import one.digitalinnovation.productstock.mapper.ProductMapper;
+import one.digitalinnovation.productstock.repository.ReactiveProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveProductServiceTest {
+    private static final long INVALID_PRODUCT_ID = 1L;
+
+    @Mock
+    private ReactiveProductRepository productRepository;
+
+    private ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    @InjectMocks
+    private ReactiveProductService productService;
+
+    @Test
+    void whenAlreadyRegisteredNameIsInformedThenAnErrorIsSignaled() {
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        when(productRepository.insert(Mockito.any(Product.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("Unique index or primary key violation: \"PUBLIC.UX_PRODUCT_NAME_INDEX_1\"")));
+
+        StepVerifier.create(productService.createProduct(productDTO))
+                .expectError(ProductAlreadyRegisteredException.class)
+                .verify();
+    }
+
+    @Test
+    void whenNotRegisteredNameIsGivenThenNotFoundIsSignaled() {
+        when(productRepository.findByName("missing")).thenReturn(Mono.empty());
+
+        StepVerifier.create(productService.findByName("missing"))
+                .expectError(ProductNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void whenListAllIsCalledThenProductsAreStreamedWithBackpressure() {
+        Product first = productMapper.toModel(ProductDTOBuilder.builder().serial(1L).build().toProductDTO());
+        Product second = productMapper.toModel(ProductDTOBuilder.builder().serial(2L).name("Outro").build().toProductDTO());
+        when(productRepository.findAllOrderedBySerial()).thenReturn(Flux.just(first, second));
+
+        StepVerifier.create(productService.listAll(), 1)
+                .expectNextMatches(productDTO -> productDTO.getSerial() == 1L)
+                .thenRequest(1)
+                .expectNextMatches(productDTO -> productDTO.getSerial() == 2L)
+                .verifyComplete();
+    }
+
+    @Test
+    void whenIncrementIsGreaterThanMaxThenStockExceededIsSignaled() {
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        when(productRepository.incrementQuantity(productDTO.getSerial(), 80)).thenReturn(Mono.just(0L));
+        when(productRepository.findById(productDTO.getSerial())).thenReturn(Mono.just(productMapper.toModel(productDTO)));
+
+        StepVerifier.create(productService.increment(productDTO.getSerial(), 80))
+                .expectError(ProductStockExceededException.class)
+                .verify();
+    }
+
+    @Test
+    void whenDecrementIsCalledWithInvalidSerialThenNotFoundIsSignaled() {
+        when(productRepository.decrementQuantity(INVALID_PRODUCT_ID, 5)).thenReturn(Mono.just(0L));
+        when(productRepository.findById(INVALID_PRODUCT_ID)).thenReturn(Mono.empty());
+
+        StepVerifier.create(productService.decrement(INVALID_PRODUCT_ID, 5))
+                .expectError(ProductNotFoundException.class)
+                .verify();
+    }
+}
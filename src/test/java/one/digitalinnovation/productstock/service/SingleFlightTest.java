@@ -0,0 +1,114 @@
+package one.digitalinnovation.productstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SingleFlightTest {
+
+    private MeterRegistry meterRegistry;
+
+    private SingleFlight singleFlight;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(meterRegistry);
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void whenIdenticalCallsAreConcurrentThenOneRunsAndTheOthersShareItsResult() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.execute("find", 1L, () -> {
+            calls.incrementAndGet();
+            await(release);
+            return "product";
+        }));
+        waitUntilInFlight();
+
+        Future<String> follower = executor.submit(() -> singleFlight.execute("find", 1L, () -> "other"));
+        Future<String> otherKey = executor.submit(() -> singleFlight.execute("find", 2L, () -> "other key"));
+        assertThat(otherKey.get(5, TimeUnit.SECONDS), is("other key"));
+        waitUntilCoalesced(1);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS), is("product"));
+        assertThat(follower.get(5, TimeUnit.SECONDS), is("product"));
+        assertThat(calls.get(), is(1));
+        assertThat(meterRegistry.counter(SingleFlight.EXECUTED_METRIC, "operation", "find").count(), is(2.0));
+        assertThat(meterRegistry.counter(SingleFlight.COALESCED_METRIC, "operation", "find").count(), is(1.0));
+    }
+
+    @Test
+    void whenSharedCallFailsThenEveryWaitingCallerGetsTheException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.<String>execute("find", 1L, () -> {
+            await(release);
+            throw new IllegalStateException("database unavailable");
+        }));
+        waitUntilInFlight();
+        Future<String> follower = executor.submit(() -> singleFlight.execute("find", 1L, () -> "product"));
+        waitUntilCoalesced(1);
+        release.countDown();
+
+        ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertThat(leaderFailure.getCause(), is(instanceOf(IllegalStateException.class)));
+        assertThat(followerFailure.getCause(), is(sameInstance(leaderFailure.getCause())));
+    }
+
+    @Test
+    void whenCallCompletedThenTheNextCallRunsAgain() {
+        AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.execute("find", 1L, calls::incrementAndGet);
+        int result = singleFlight.execute("find", 1L, calls::incrementAndGet);
+
+        assertThat(result, is(2));
+        assertThat(meterRegistry.counter(SingleFlight.COALESCED_METRIC, "operation", "find").count(), is(0.0));
+    }
+
+    private void waitUntilInFlight() throws InterruptedException {
+        while (meterRegistry.counter(SingleFlight.EXECUTED_METRIC, "operation", "find").count() < 1) {
+            Thread.sleep(1);
+        }
+    }
+
+    private void waitUntilCoalesced(int callers) throws InterruptedException {
+        while (meterRegistry.counter(SingleFlight.COALESCED_METRIC, "operation", "find").count() < callers) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
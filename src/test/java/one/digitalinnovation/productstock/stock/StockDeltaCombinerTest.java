@@ -0,0 +1,116 @@
+package one.digitalinnovation.productstock.stock;
+
+import one.digitalinnovation.productstock.builder.ProductDTOBuilder;
+import one.digitalinnovation.productstock.cache.ProductCache;
+import one.digitalinnovation.productstock.config.StockCombiningProperties;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.entity.Product;
+import one.digitalinnovation.productstock.event.StockEventOutbox;
+import one.digitalinnovation.productstock.exception.ProductNotFoundException;
+import one.digitalinnovation.productstock.exception.ProductStockExceededException;
+import one.digitalinnovation.productstock.exception.ProductStockException;
+import one.digitalinnovation.productstock.mapper.ProductMapper;
+import one.digitalinnovation.productstock.metrics.ProductStockMetrics;
+import one.digitalinnovation.productstock.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StockDeltaCombinerTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductStockMetrics productStockMetrics;
+
+    @Mock
+    private StockEventOutbox stockEventOutbox;
+
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class));
+
+    private final ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+    private StockDeltaCombiner stockDeltaCombiner;
+
+    @BeforeEach
+    void setUp() {
+        StockCombiningProperties properties = new StockCombiningProperties();
+        properties.setEnabled(true);
+        properties.setWindow(Duration.ofMillis(100));
+        stockDeltaCombiner = new StockDeltaCombiner(properties, productRepository, productCache,
+                productStockMetrics, stockEventOutbox, transactionTemplate);
+        stockDeltaCombiner.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        stockDeltaCombiner.stop();
+    }
+
+    @Test
+    void whenDeltasShareAWindowThenTheyAreWrittenOnceAndEachGetsItsOwnOutcome() throws Exception {
+        //given
+        Product product = ProductMapper.INSTANCE.toModel(productDTO);
+        when(productRepository.findForUpdate(productDTO.getSerial())).thenReturn(Optional.of(product));
+
+        //when
+        CompletableFuture<ProductDTO> increment = stockDeltaCombiner.submit(productDTO.getSerial(), 30);
+        CompletableFuture<ProductDTO> exceedingIncrement = stockDeltaCombiner.submit(productDTO.getSerial(), 20);
+        CompletableFuture<ProductDTO> decrement = stockDeltaCombiner.submit(productDTO.getSerial(), -40);
+        CompletableFuture<ProductDTO> exceedingDecrement = stockDeltaCombiner.submit(productDTO.getSerial(), -1);
+
+        //then
+        assertThat(increment.get(5, TimeUnit.SECONDS).getQuantity(), is(equalTo(40)));
+        assertThat(rejection(exceedingIncrement), is(instanceOf(ProductStockExceededException.class)));
+        assertThat(decrement.get(5, TimeUnit.SECONDS).getQuantity(), is(equalTo(0)));
+        assertThat(rejection(exceedingDecrement), is(instanceOf(ProductStockException.class)));
+        assertThat(product.getQuantity(), is(equalTo(0)));
+        verify(productRepository, times(1)).findForUpdate(productDTO.getSerial());
+        verify(stockEventOutbox, times(2)).record(Mockito.any(), Mockito.anyInt());
+    }
+
+    @Test
+    void whenProductDoesNotExistThenEveryDeltaIsRejected() {
+        //given
+        when(productRepository.findForUpdate(productDTO.getSerial())).thenReturn(Optional.empty());
+
+        //when
+        CompletableFuture<ProductDTO> increment = stockDeltaCombiner.submit(productDTO.getSerial(), 1);
+        CompletableFuture<ProductDTO> decrement = stockDeltaCombiner.submit(productDTO.getSerial(), -1);
+
+        //then
+        assertThat(rejection(increment), is(instanceOf(ProductNotFoundException.class)));
+        assertThat(rejection(decrement), is(instanceOf(ProductNotFoundException.class)));
+        Mockito.verifyNoInteractions(productCache, stockEventOutbox);
+    }
+
+    private static Throwable rejection(CompletableFuture<ProductDTO> result) {
+        return assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS)).getCause();
+    }
+}
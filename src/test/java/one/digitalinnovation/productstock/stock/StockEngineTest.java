@@ -0,0 +1,172 @@
+package one.digitalinnovation.productstock.stock;
+
+import one.digitalinnovation.productstock.builder.ProductDTOBuilder;
+import one.digitalinnovation.productstock.config.StockEngineProperties;
+import one.digitalinnovation.productstock.dto.ProductDTO;
+import one.digitalinnovation.productstock.entity.StockJournalCheckpoint;
+import one.digitalinnovation.productstock.exception.ProductNotFoundException;
+import one.digitalinnovation.productstock.exception.ProductStockExceededException;
+import one.digitalinnovation.productstock.exception.ProductStockException;
+import one.digitalinnovation.productstock.mapper.ProductMapper;
+import one.digitalinnovation.productstock.repository.ProductRepository;
+import one.digitalinnovation.productstock.repository.StockJournalCheckpointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StockEngineTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockJournalCheckpointRepository checkpointRepository;
+
+    @TempDir
+    Path journalDirectory;
+
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class));
+
+    private final ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+    private StockEngine stockEngine;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(checkpointRepository.findById(Mockito.anyInt())).thenReturn(Optional.empty());
+        stockEngine = newStockEngine();
+        stockEngine.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException, InterruptedException {
+        stockEngine.stop();
+    }
+
+    @Test
+    void whenStockIsAdjustedThenBoundsAreEnforcedInMemory() throws ProductNotFoundException, ProductStockException {
+        when(productRepository.findById(productDTO.getSerial()))
+                .thenReturn(Optional.of(ProductMapper.INSTANCE.toModel(productDTO)));
+
+        ProductDTO decrementedProductDTO = stockEngine.decrement(productDTO.getSerial(), productDTO.getQuantity());
+
+        assertThat(decrementedProductDTO.getQuantity(), is(equalTo(0)));
+        assertThrows(ProductStockException.class, () -> stockEngine.decrement(productDTO.getSerial(), 1));
+        assertThrows(ProductStockExceededException.class, () -> stockEngine.increment(productDTO.getSerial(), productDTO.getMax() + 1));
+        verify(productRepository, never()).addQuantity(Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    @Test
+    void whenFlushIsCalledThenAccumulatedDeltasAreWrittenWithTheCheckpoint() throws Exception {
+        when(productRepository.findById(productDTO.getSerial()))
+                .thenReturn(Optional.of(ProductMapper.INSTANCE.toModel(productDTO)));
+
+        stockEngine.decrement(productDTO.getSerial(), 3);
+        stockEngine.increment(productDTO.getSerial(), 1);
+        stockEngine.flush();
+
+        verify(productRepository).addQuantity(productDTO.getSerial(), -2);
+        verify(checkpointRepository).save(Mockito.argThat(checkpoint -> checkpoint.getSequence() == 2));
+        assertThat(journalSegments(), is(equalTo(16L)));
+    }
+
+    @Test
+    void whenEngineCrashesBeforeFlushThenJournalIsReplayedOnStartup() throws Exception {
+        when(productRepository.findById(productDTO.getSerial()))
+                .thenReturn(Optional.of(ProductMapper.INSTANCE.toModel(productDTO)));
+
+        stockEngine.decrement(productDTO.getSerial(), 3);
+        stockEngine.decrement(productDTO.getSerial(), 4);
+
+        StockEngine restartedStockEngine = newStockEngine();
+        restartedStockEngine.start();
+        restartedStockEngine.stop();
+
+        verify(productRepository).addQuantity(productDTO.getSerial(), -7);
+        verify(checkpointRepository).save(Mockito.argThat(checkpoint -> checkpoint.getSequence() == 2));
+    }
+
+    @Test
+    void whenFlushIsRetriedWithoutNewAdjustmentsThenLaterAdjustmentsAreStillReplayed() throws Exception {
+        when(productRepository.findById(productDTO.getSerial()))
+                .thenReturn(Optional.of(ProductMapper.INSTANCE.toModel(productDTO)));
+        when(productRepository.addQuantity(productDTO.getSerial(), -3))
+                .thenThrow(new IllegalStateException("Lock timeout"))
+                .thenReturn(1);
+
+        stockEngine.decrement(productDTO.getSerial(), 3);
+        assertThrows(IllegalStateException.class, () -> stockEngine.flush());
+        stockEngine.flush();
+        stockEngine.decrement(productDTO.getSerial(), 4);
+
+        StockEngine restartedStockEngine = newStockEngine();
+        restartedStockEngine.start();
+        restartedStockEngine.stop();
+
+        verify(productRepository).addQuantity(productDTO.getSerial(), -4);
+    }
+
+    @Test
+    void whenAdjustmentIsNotFlushedYetThenReadsGetTheQuantityOfTheEngine() throws Exception {
+        when(productRepository.findById(productDTO.getSerial()))
+                .thenReturn(Optional.of(ProductMapper.INSTANCE.toModel(productDTO)));
+
+        stockEngine.increment(productDTO.getSerial(), 5);
+        ProductDTO readProductDTO = stockEngine.withCurrentQuantity(ProductDTOBuilder.builder().build().toProductDTO());
+
+        assertThat(readProductDTO.getQuantity(), is(equalTo(productDTO.getQuantity() + 5)));
+    }
+
+    @Test
+    void whenAdjustmentCanNotBeJournaledThenItIsNotApplied() throws Exception {
+        when(productRepository.findById(productDTO.getSerial()))
+                .thenReturn(Optional.of(ProductMapper.INSTANCE.toModel(productDTO)));
+        stockEngine.increment(productDTO.getSerial(), 5);
+        stockEngine.stop();
+
+        assertThrows(UncheckedIOException.class, () -> stockEngine.decrement(productDTO.getSerial(), 3));
+
+        ProductDTO readProductDTO = stockEngine.withCurrentQuantity(ProductDTOBuilder.builder().build().toProductDTO());
+        assertThat(readProductDTO.getQuantity(), is(equalTo(productDTO.getQuantity() + 5)));
+        stockEngine = newStockEngine();
+        stockEngine.start();
+    }
+
+    private StockEngine newStockEngine() {
+        StockEngineProperties properties = new StockEngineProperties();
+        properties.setEnabled(true);
+        properties.setFlushInterval(Duration.ofHours(1));
+        properties.setJournalDirectory(journalDirectory);
+        return new StockEngine(properties, productRepository, checkpointRepository, transactionTemplate);
+    }
+
+    private long journalSegments() throws IOException {
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            return files.count();
+        }
+    }
+}